@@ -0,0 +1,42 @@
+package uniChess.benchmarks;
+
+import uniChess.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+*	Replays a reference game through {@link Game#advance(String)}: parsing, legality checks, performing 
+*	each move and checking for check and mate. One operation replays the whole game.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameReplayBenchmark {
+
+	@Param({"opera", "ruyLopez", "engine"})
+	public String game;
+
+	private String moves;
+
+	@Setup
+	public void setup(){
+		switch (game){
+			case "opera":		moves = Positions.OPERA_GAME; break;
+			case "ruyLopez":	moves = Positions.RUY_LOPEZ; break;
+			default:			moves = Positions.ENGINE_GAME; break;
+		}
+	}
+
+	@Benchmark
+	public Game advance(){
+		Game g = new Game(new Player<>("white", Game.Color.WHITE), new Player<>("black", Game.Color.BLACK));
+		for (String move : moves.split(","))
+			g.advance(move);
+		return g;
+	}
+}
@@ -0,0 +1,54 @@
+package uniChess.benchmarks;
+
+import uniChess.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+*	Move generation and move execution on a fixed position. Every operation works on a fresh copy of the 
+*	position's board, since a Board caches its move lists once they are computed.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+	@Param({"start", "opening", "middlegame", "endgame"})
+	public String position;
+
+	private Board board;
+	private Game.Color color;
+	private List<Move> legal;
+
+	@Setup
+	public void setup(){
+		Game game = Positions.game(position);
+		board = game.getCurrentBoard();
+		color = game.getCurrentPlayer().color;
+		legal = board.getLegalMoves(color);
+	}
+
+	@Benchmark
+	public List<Move> calculateValidMoves(){
+		return new Board(board).calculateValidMoves(color);
+	}
+
+	@Benchmark
+	public List<Move> calculateLegalMoves(){
+		return new Board(board).calculateLegalMoves(color);
+	}
+
+	/** Performs every legal move of the position, each on its own copy of the board. */
+	@Benchmark
+	public void performMove(Blackhole bh){
+		for (Move m : legal)
+			bh.consume(board.performMove(m));
+	}
+}
@@ -0,0 +1,51 @@
+package uniChess.benchmarks;
+
+import uniChess.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+*	Parses every move of a reference game from algebraic notation, each on the board it was played on.
+*	One operation parses the whole game.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseMoveBenchmark {
+
+	@Param({"opening", "middlegame", "endgame"})
+	public String position;
+
+	private Board[] boards;
+	private Game.Color[] colors;
+	private String[] moves;
+
+	@Setup
+	public void setup(){
+		Game game = Positions.game(position);
+		moves = game.getGameString().split(",");
+
+		List<Board> history = game.getBoardList();
+		boards = new Board[moves.length];
+		colors = new Game.Color[moves.length];
+		for (int i = 0; i < moves.length; ++i){
+			boards[i] = history.get(i);
+			colors[i] = (i % 2 == 0) ? Game.Color.WHITE : Game.Color.BLACK;
+			// Move lists are cached per board, so this measures parsing rather than move generation
+			boards[i].getValidMoves(colors[i]);
+		}
+	}
+
+	@Benchmark
+	public void parseMove(Blackhole bh) throws GameException {
+		for (int i = 0; i < moves.length; ++i)
+			bh.consume(Move.parseMove(boards[i], colors[i], moves[i]));
+	}
+}
@@ -0,0 +1,61 @@
+package uniChess.benchmarks;
+
+import uniChess.*;
+
+import java.util.Map;
+import java.util.LinkedHashMap;
+
+/**
+*	The reference games the benchmarks are run on, as game strings (see {@link Game#getGameString()}). Each
+*	benchmark position is the position at the end of one of these games.
+*/
+final class Positions {
+
+	/** Morphy's Opera Game, to the mate */
+	static final String OPERA_GAME = "pe2e4,pe7e5,ng1f3,pd7d6,pd2d4,bc8g4,pd4e5,bg4f3,qd1f3,pd6e5,bf1c4,ng8f6,qf3b3,qd8e7,nb1c3,pc7c6,"
+									+"bc1g5,pb7b5,nc3b5,pc6b5,bc4b5,nb8d7,0-0-0,ra8d8,rd1d7,rd8d7,rh1d1,qe7e6,bb5d7,nf6d7,qb3b8,nd7b8,rd1d8";
+
+	/** The closed Ruy Lopez, Chigorin variation */
+	static final String RUY_LOPEZ = "pe2e4,pe7e5,ng1f3,nb8c6,bf1b5,pa7a6,bb5a4,ng8f6,0-0,bf8e7,rf1e1,pb7b5,ba4b3,pd7d6,pc2c3,0-0,"
+									+"ph2h3,nc6a5,bb3c2,pc7c5,pd2d4,qd8c7";
+
+	/** A game played by Chesster against itself at depth 2, with most of the pieces traded off */
+	static final String ENGINE_GAME = "ng1f3,nb8c6,pb2b4,ng8f6,ph2h4,nc6d4,nf3g5,pe7e5,nb1c3,nd4c2,qd1c2,bf8b4,qc2h7,pd7d5,qh7h8,ke8d7,"
+									+"nc3d5,nf6d5,ng5f7,qd8h4,qh8c8,kd7e7,qc8a8,qh4e4,pg2g4,ke7f7,qa8a7,nd5e3,qa7e3,qe4h1,qe3b3,kf7f8,"
+									+"qb3f3,qh1f3,pe2e4,qf3c3,pa2a3,qc3a3,bc1b2,qa3b2";
+
+	/** The benchmark positions by name, each given by the moves leading to it */
+	static final Map<String, String> POSITIONS = new LinkedHashMap<>();
+	static {
+		POSITIONS.put("start", "");
+		POSITIONS.put("opening", RUY_LOPEZ);
+		POSITIONS.put("middlegame", "pe2e4,pe7e5,ng1f3,pd7d6,pd2d4,bc8g4,pd4e5,bg4f3,qd1f3,pd6e5,bf1c4,ng8f6,qf3b3,qd8e7,nb1c3,pc7c6,"
+									+"bc1g5,pb7b5,nc3b5,pc6b5,bc4b5,nb8d7");
+		POSITIONS.put("endgame", ENGINE_GAME);
+	}
+
+	private Positions(){}
+
+	/**
+	*	Plays the moves leading to a named position.
+	*
+	*	@param name The name of the position
+	*	@param white The white player
+	*	@param black The black player
+	*	@return A game in that position
+	*/
+	static Game game(String name, Player white, Player black){
+		String moves = POSITIONS.get(name);
+		if (moves == null)
+			throw new IllegalArgumentException("Unknown position: "+name);
+		return moves.isEmpty() ? new Game(white, black) : new Game(white, black, moves);
+	}
+
+	/**
+	*	@param name The name of the position
+	*	@return A game between two plain players in that position
+	*/
+	static Game game(String name){
+		return game(name, new Player<>("white", Game.Color.WHITE), new Player<>("black", Game.Color.BLACK));
+	}
+}
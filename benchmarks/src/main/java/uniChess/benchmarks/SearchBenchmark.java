@@ -0,0 +1,94 @@
+package uniChess.benchmarks;
+
+import uniChess.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+*	{@link Chesster#getMove()} at a fixed depth on a fixed position, with either engine, and the progress Chesster
+*	prints is discarded. The same Chesster makes every call, as it makes every move of a game.
+*	<p>
+*	The strategy threads search {@code depth} plies. The alpha-beta search searches twice as deep, the depth it is
+*	meant to reach in the time the strategy threads take, on one thread so its node counts do not depend on how
+*	Lazy SMP helpers happen to interleave. Its transposition table is emptied before every call, outside the
+*	measured time, so every call searches the whole tree rather than answering from the previous call's entries.
+*	Alongside the time per search, the {@link Nodes} counters report the nodes the alpha-beta search visited and
+*	the searches made, whose ratio is the nodes per search to that depth.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+	@Param({"start", "opening", "middlegame", "endgame"})
+	public String position;
+
+	@Param({"STRATEGY", "ALPHA_BETA"})
+	public Chesster.EngineType engine;
+
+	@Param({"2", "3"})
+	public int depth;
+
+	private Chesster<String> chesster;
+	private PrintStream out;
+
+	/** Counts the nodes the alpha-beta search visits, reported next to the time per search */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Nodes {
+		public long nodes;
+		public long searches;
+
+		@Setup(Level.Iteration)
+		public void reset(){
+			nodes = searches = 0;
+		}
+	}
+
+	@Setup
+	public void setup(){
+		Chesster<String> white = new Chesster<>("white", Game.Color.WHITE);
+		Chesster<String> black = new Chesster<>("black", Game.Color.BLACK);
+		Game game = Positions.game(position, white, black);
+		chesster = (game.getCurrentPlayer() == white) ? white : black;
+		chesster.ENGINE = engine;
+		chesster.AI_DEPTH = depth;
+		chesster.SEARCH_DEPTH = depth * 2;
+		if (engine == Chesster.EngineType.ALPHA_BETA)
+			chesster.THREADS = 1;
+
+		out = System.out;
+		System.setOut(new PrintStream(new OutputStream(){
+			@Override
+			public void write(int b){}
+		}));
+	}
+
+	@Setup(Level.Invocation)
+	public void clearTable(){
+		if (engine == Chesster.EngineType.ALPHA_BETA)
+			chesster.getTranspositionTable().clear();
+	}
+
+	@TearDown
+	public void tearDown(){
+		System.setOut(out);
+	}
+
+	@Benchmark
+	public Move getMove(Nodes counters){
+		Move move = chesster.getMove();
+		if (engine == Chesster.EngineType.ALPHA_BETA){
+			counters.nodes += chesster.getLastSearchResult().getNodes();
+			++counters.searches;
+		}
+		return move;
+	}
+}
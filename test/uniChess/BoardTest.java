@@ -0,0 +1,102 @@
+package uniChess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BoardTest {
+
+	private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+	/** A SearchBoard resolves exchanges in one reused array, which must give what a fresh array gives. */
+	@Test
+	public void staticExchangeReusesItsArrayOnSearchBoards(){
+		SearchBoard board = new SearchBoard(Board.fromFen(KIWIPETE));
+		MoveList moves = new MoveList(), replies = new MoveList();
+		board.generateLegalMoves(board.getSideToMove(), moves);
+		for (int i = 0; i < moves.size(); ++i){
+			board.makeMove(moves.get(i));
+			Board copy = new Board(board);
+			board.generateLegalMoves(board.getSideToMove(), replies);
+			for (int j = 0; j < replies.size(); ++j){
+				int reply = replies.get(j);
+				if (Move.isCapture(reply))
+					assertEquals(Move.getCoordinateString(reply), copy.staticExchange(reply), board.staticExchange(reply), 0);
+			}
+			board.unmakeMove();
+		}
+	}
+
+	/** A search that returns to a position played in the game before it has found a repetition. */
+	@Test
+	public void searchBoardFindsRepetitionsOfTheGame(){
+		Game game = new Game(new Player<>("white", Game.Color.WHITE), new Player<>("black", Game.Color.BLACK), "ng1f3,ng8f6");
+		SearchBoard board = new SearchBoard(game.getCurrentBoard());
+		board.makeMove(Move.encode(Board.square(5, 2), Board.square(6, 0), Move.QUIET));
+		board.makeMove(Move.encode(Board.square(5, 5), Board.square(6, 7), Move.QUIET));
+		assertFalse(board.isRepetition());
+
+		board.setHistory(game.getRepetitionKeys());
+		assertTrue(board.isRepetition());
+	}
+
+	/** A double push only changes the key when a pawn of the other side could capture en passant. */
+	@Test
+	public void enPassantSquareIsOnlyHashedWhenItCanBeCaptured(){
+		SearchBoard board = new SearchBoard(new Board());
+		board.makeMove(Move.encode(Board.square(4, 1), Board.square(4, 3), Move.DOUBLE_PUSH));
+		Board withoutSquare = Board.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+		assertEquals(withoutSquare.getKey(), board.getKey());
+		assertEquals(withoutSquare, new Board(board));
+		assertEquals(Zobrist.compute(board), board.getKey());
+
+		board = new SearchBoard(Board.fromFen("4k3/8/8/8/3p4/8/4P3/4K3 w - - 0 1"));
+		board.makeMove(Move.encode(Board.square(4, 1), Board.square(4, 3), Move.DOUBLE_PUSH));
+		assertNotEquals(Board.fromFen("4k3/8/8/8/3pP3/8/8/4K3 b - - 0 1").getKey(), board.getKey());
+		assertEquals(Board.fromFen("4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 1").getKey(), board.getKey());
+		assertEquals(Zobrist.compute(board), board.getKey());
+		board.makeNullMove();
+		assertEquals(Zobrist.compute(board), board.getKey());
+		board.unmakeMove();
+		board.unmakeMove();
+		assertEquals(Board.fromFen("4k3/8/8/8/3p4/8/4P3/4K3 w - - 0 1").getKey(), board.getKey());
+	}
+
+	/** The incremental key follows en passant squares appearing and disappearing through a search. */
+	@Test
+	public void incrementalKeysMatchComputedKeys(){
+		SearchBoard board = new SearchBoard(Board.fromFen(KIWIPETE));
+		MoveList moves = new MoveList(), replies = new MoveList(), third = new MoveList();
+		board.generateLegalMoves(board.getSideToMove(), moves);
+		for (int i = 0; i < moves.size(); ++i){
+			board.makeMove(moves.get(i));
+			board.generateLegalMoves(board.getSideToMove(), replies);
+			for (int j = 0; j < replies.size(); ++j){
+				board.makeMove(replies.get(j));
+				board.generateLegalMoves(board.getSideToMove(), third);
+				for (int k = 0; k < third.size(); ++k){
+					board.makeMove(third.get(k));
+					assertEquals(Zobrist.compute(board), board.getKey());
+					board.unmakeMove();
+				}
+				board.unmakeMove();
+			}
+			board.unmakeMove();
+		}
+	}
+
+	/** Setting a piece on a tile drops the move lists the board had already generated. */
+	@Test
+	public void setOccupatorClearsCachedMoves(){
+		Board board = new Board();
+		assertEquals(20, board.getLegalMoves(Game.Color.WHITE).size());
+		assertEquals(20, board.getValidMoves(Game.Color.WHITE).size());
+
+		board.getTile(4, 1).setOccupator(null);
+		assertEquals(29, board.getLegalMoves(Game.Color.WHITE).size());
+		assertEquals(29, board.getValidMoves(Game.Color.WHITE).size());
+	}
+}
@@ -0,0 +1,99 @@
+package uniChess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChessterTest {
+
+	private static final String ITALIAN = "pe2e4,pe7e5,ng1f3,nb8c6,bf1c4";
+
+	private PrintStream out;
+
+	@Before
+	public void silence(){
+		out = System.out;
+		System.setOut(new PrintStream(new OutputStream(){
+			@Override
+			public void write(int b){}
+		}));
+	}
+
+	@After
+	public void restore(){
+		System.setOut(out);
+	}
+
+	private static Chesster<String> blackToMove(String moves){
+		Chesster<String> white = new Chesster<>("white", Game.Color.WHITE), black = new Chesster<>("black", Game.Color.BLACK);
+		new Game(white, black, moves);
+		black.AI_DEPTH = 3;
+		black.THREADS = 1;
+		return black;
+	}
+
+	/** Entries an earlier search left in the transposition table must not change what a later search picks. */
+	@Test
+	public void repeatedSearchesPickTheSameMove(){
+		Chesster<String> chesster = blackToMove(ITALIAN);
+		int first = chesster.getMove().getCode();
+		assertEquals(first, chesster.getMove().getCode());
+
+		chesster.getTranspositionTable().clear();
+		assertEquals(first, chesster.getMove().getCode());
+	}
+
+	/** The same goes for a bot that reaches the same position again in a new game. */
+	@Test
+	public void newGameInSamePositionPicksTheSameMove(){
+		Chesster<String> chesster = blackToMove(ITALIAN);
+		int first = chesster.getMove().getCode();
+
+		Chesster<String> white = new Chesster<>("white", Game.Color.WHITE);
+		new Game(white, chesster, ITALIAN);
+		assertEquals(first, chesster.getMove().getCode());
+	}
+
+	/** The strategy threads must leave nothing in the table the alpha-beta search could take for a score. */
+	@Test
+	public void strategySearchDoesNotChangeAlphaBetaMove(){
+		Chesster<String> chesster = blackToMove(ITALIAN);
+		chesster.ENGINE = Chesster.EngineType.ALPHA_BETA;
+		chesster.SEARCH_DEPTH = 4;
+		int first = chesster.getMove().getCode();
+		SearchResult result = chesster.getLastSearchResult();
+
+		chesster = blackToMove(ITALIAN);
+		chesster.getMove();
+		chesster.ENGINE = Chesster.EngineType.ALPHA_BETA;
+		chesster.SEARCH_DEPTH = 4;
+		assertEquals(first, chesster.getMove().getCode());
+		assertEquals(result.getScore(), chesster.getLastSearchResult().getScore());
+	}
+
+	/** An interrupted search stops its root moves and picks among those that finished, or gives up if none did. */
+	@Test
+	public void interruptedSearchStopsItsRootMoves(){
+		Chesster<String> chesster = blackToMove(ITALIAN);
+		chesster.AI_DEPTH = 6;
+		List<Move> legal = chesster.getGame().getCurrentBoard().getLegalMoves(chesster);
+
+		Thread.currentThread().interrupt();
+		try {
+			assertTrue(legal.contains(chesster.getMove()));
+		} catch (RuntimeException e){
+			assertTrue(e.getCause() instanceof InterruptedException);
+		} finally {
+			assertTrue(Thread.interrupted());
+		}
+		assertTrue(chesster.getSearchPool().awaitQuiescence(10, TimeUnit.SECONDS));
+	}
+}
@@ -0,0 +1,86 @@
+package uniChess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class GameTest {
+
+	private static final String[] MOVES = {"pe2e4", "pe7e5", "ng1f3", "nb8c6", "bf1c4", "bf8c5", "pc2c3", "ng8f6", "pd2d4", "pe5d4"};
+
+	private static Game newGame(){
+		return new Game(new Player<>("white", Game.Color.WHITE), new Player<>("black", Game.Color.BLACK));
+	}
+
+	/** Plays the moves on a game, collecting the board after each of them. */
+	private static List<Board> play(Game game, List<Board> boards){
+		for (String move : MOVES){
+			assertEquals(Game.GameEvent.OK, game.advance(move));
+			boards.add(new Board(game.getCurrentBoard()));
+		}
+		return boards;
+	}
+
+	@Test
+	public void pastBoardsAreRebuiltFromSnapshots(){
+		Game game = newGame();
+		game.setSnapshotInterval(3);
+		List<Board> expected = play(game, new ArrayList<>(Collections.singletonList(new Board())));
+
+		assertEquals(expected, game.getBoardList());
+		game.setSnapshotInterval(4);
+		assertEquals(expected, game.getBoardList());
+	}
+
+	/** A board set on the game starts a new line without recording any move. */
+	@Test
+	public void setBoardsAreKeptWithoutAMove(){
+		Game game = newGame();
+		game.setSnapshotInterval(3);
+		List<Board> expected = play(game, new ArrayList<>(Collections.singletonList(new Board())));
+
+		Board set = new Board();
+		game.setcurrentBoard(set);
+		expected.add(set);
+		play(game, expected);
+
+		assertEquals(expected, game.getBoardList());
+		assertSame(set, game.getBoard(MOVES.length + 1));
+		assertEquals(String.join(",", MOVES)+","+String.join(",", MOVES), game.getGameString());
+
+		game.setSnapshotInterval(4);
+		assertEquals(expected, game.getBoardList());
+	}
+
+	@Test
+	public void lastRebuiltBoardIsKept(){
+		Game game = newGame();
+		play(game, new ArrayList<>());
+
+		Board board = game.getBoard(5);
+		assertSame(board, game.getBoard(5));
+		game.getBoard(6);
+		assertNotSame(board, game.getBoard(5));
+		assertEquals(board, game.getBoard(5));
+	}
+
+	/** Only positions since the last capture or pawn move can repeat. */
+	@Test
+	public void repetitionKeysGoBackToTheLastPawnMove(){
+		Game game = newGame();
+		for (String move : "pe2e4,pe7e5,ng1f3,nb8c6,nf3g1,nc6b8".split(","))
+			game.advance(move);
+
+		long[] keys = game.getRepetitionKeys();
+		assertEquals(4, keys.length);
+		assertEquals(game.getBoard(2).getKey(), keys[0]);
+		assertEquals(game.getCurrentBoard().getKey(), keys[0]);
+		assertEquals(game.getBoard(5).getKey(), keys[3]);
+	}
+}
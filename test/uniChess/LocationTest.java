@@ -0,0 +1,47 @@
+package uniChess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class LocationTest {
+
+	@Test
+	public void squaresAreCanonical(){
+		assertSame(Location.of(4, 3), Location.of(28));
+		assertEquals("e4", Location.of(4, 3).toString());
+		assertEquals(28, Location.of(4, 3).getSquare());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void fileOffTheBoardIsRejected(){
+		Location.of(8, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeRankIsRejected(){
+		Location.of(0, -1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void squareIndexOffTheBoardIsRejected(){
+		Location.of(64);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void deprecatedConstructorsCopyTheCanonicalSquare() throws GameException {
+		Location copy = new Location(4, 3);
+		assertNotSame(Location.of(4, 3), copy);
+		assertEquals(Location.of(4, 3), copy);
+		assertEquals(Location.of(4, 3), new Location("e4"));
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test(expected = IllegalArgumentException.class)
+	public void deprecatedConstructorRejectsSquaresOffTheBoard(){
+		new Location(8, 0);
+	}
+}
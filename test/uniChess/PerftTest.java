@@ -0,0 +1,73 @@
+package uniChess;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+*	Checks move generation against the well known perft counts of the standard test positions, counting on one
+*	thread, on several threads, and with the hash table of counts.
+*/
+public class PerftTest {
+
+	private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+	private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+	private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+	private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+	private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+	private static final String POSITION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+	private static void check(String fen, int threads, int hashMB, long... counts){
+		Perft perft = new Perft(Board.fromFen(fen));
+		perft.setThreads(threads);
+		perft.setHashSizeMB(hashMB);
+		try {
+			for (int depth = 1; depth <= counts.length; ++depth)
+				assertEquals(fen+" at depth "+depth, counts[depth - 1], perft.perft(depth));
+		} finally {
+			perft.setThreads(1);
+		}
+	}
+
+	private static void checkAll(int threads, int hashMB){
+		check(START, threads, hashMB, 20, 400, 8902, 197281, 4865609);
+		check(KIWIPETE, threads, hashMB, 48, 2039, 97862, 4085603);
+		check(POSITION_3, threads, hashMB, 14, 191, 2812, 43238, 674624);
+		check(POSITION_4, threads, hashMB, 6, 264, 9467, 422333);
+		check(POSITION_5, threads, hashMB, 44, 1486, 62379, 2103487);
+		check(POSITION_6, threads, hashMB, 46, 2079, 89890, 3894594);
+	}
+
+	@Test
+	public void singleThread(){
+		checkAll(1, 0);
+	}
+
+	@Test
+	public void forkJoin(){
+		checkAll(4, 0);
+	}
+
+	@Test
+	public void hashTable(){
+		checkAll(1, 16);
+	}
+
+	@Test
+	public void forkJoinWithHashTable(){
+		checkAll(4, 16);
+	}
+
+	@Test
+	public void startPositionFromFenMatchesNewBoard(){
+		Board board = new Board();
+		assertEquals(board, Board.fromFen(START));
+		assertEquals(board.getKey(), Board.fromFen(START).getKey());
+		assertEquals(Zobrist.compute(Board.fromFen(KIWIPETE)), Board.fromFen(KIWIPETE).getKey());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void malformedFenIsRejected(){
+		Board.fromFen("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+	}
+}
@@ -0,0 +1,38 @@
+package uniChess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class PieceTest {
+
+	@Test
+	public void piecesAreShared(){
+		Piece queen = Piece.of(Game.Color.BLACK, Game.PieceType.QUEEN);
+		assertSame(queen, Piece.of(Game.Color.BLACK, Game.PieceType.QUEEN));
+		assertEquals("q", queen.symbol);
+		assertEquals(10.0, queen.value, 0.0);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void deprecatedConstructorsCopyTheSharedPiece(){
+		Piece shared = Piece.of(Game.Color.WHITE, Game.PieceType.KNIGHT);
+		Piece copy = new Piece(Game.Color.WHITE, Game.PieceType.KNIGHT);
+		assertNotSame(shared, copy);
+		assertEquals(shared.symbol, copy.symbol);
+		assertEquals(shared.unicodeSymbol, copy.unicodeSymbol);
+		assertEquals(shared.value, copy.value, 0.0);
+		assertEquals(shared.getSymbol(true), new Piece(copy).getSymbol(true));
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void boardsStoreTheSharedPiece(){
+		Board board = new Board();
+		board.getTile(4, 3).setOccupator(new Piece(Game.Color.WHITE, Game.PieceType.KNIGHT));
+		assertSame(Piece.of(Game.Color.WHITE, Game.PieceType.KNIGHT), board.getTile(4, 3).getOccupator());
+	}
+}
@@ -0,0 +1,89 @@
+package uniChess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class SimulationCacheTest {
+
+	private static final int E2E4 = Move.encode(Board.square(4, 1), Board.square(4, 3), Move.DOUBLE_PUSH);
+
+	@Test
+	public void sameMoveOnSameBoardIsSimulatedOnce(){
+		SimulationCache cache = new SimulationCache(16);
+		Board board = new Board();
+		Board first = cache.getSimulation(new Move(board, E2E4));
+
+		assertSame(first, cache.getSimulation(new Move(new Board(board), E2E4)));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	/** Boards in the same position can have come there by different captures, which their children must keep. */
+	@Test
+	public void childKeepsTheDeathRowOfItsOwnParent(){
+		SimulationCache cache = new SimulationCache(16);
+		Board board = new Board(), other = new Board();
+		Piece knight = Piece.of(Game.Color.BLACK, Game.PieceType.KNIGHT);
+		other.addToDeathRow(knight);
+
+		Board sim = cache.getSimulation(new Move(board, E2E4));
+		Board otherSim = cache.getSimulation(new Move(other, E2E4));
+
+		assertNotSame(sim, otherSim);
+		assertEquals(sim, otherSim);
+		assertTrue(sim.getDeathRow().isEmpty());
+		assertEquals(Collections.singletonList(knight), otherSim.getDeathRow());
+
+		other.addToDeathRow(knight);
+		assertEquals(Arrays.asList(knight, knight), cache.getSimulation(new Move(other, E2E4)).getDeathRow());
+	}
+
+	@Test
+	public void deathRowKeyFollowsPiecesAndOrder(){
+		Piece knight = Piece.of(Game.Color.BLACK, Game.PieceType.KNIGHT), pawn = Piece.of(Game.Color.WHITE, Game.PieceType.PAWN);
+		Board a = new Board(), b = new Board(), c = new Board();
+		a.addToDeathRow(knight);
+		a.addToDeathRow(pawn);
+		b.addToDeathRow(knight);
+		b.addToDeathRow(pawn);
+		c.addToDeathRow(pawn);
+		c.addToDeathRow(knight);
+
+		assertEquals(a.getDeathRowKey(), b.getDeathRowKey());
+		assertEquals(a.getDeathRowKey(), new Board(a).getDeathRowKey());
+		assertNotEquals(a.getDeathRowKey(), c.getDeathRowKey());
+		assertNotEquals(0, a.getDeathRowKey());
+	}
+
+	/** Threads sharing a simulation all see its move lists fully built. */
+	@Test
+	public void sharedSimulationsCanBeUsedFromSeveralThreads() throws Exception {
+		SimulationCache cache = new SimulationCache(16);
+		Board board = new Board();
+		int expected = new Board().performMove(E2E4).getLegalMoves(Game.Color.BLACK).size();
+
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> sizes = new ArrayList<>();
+			for (int i = 0; i < 64; ++i)
+				sizes.add(pool.submit(() -> cache.getSimulation(new Move(board, E2E4)).getLegalMoves(Game.Color.BLACK).size()));
+			for (Future<Integer> size : sizes)
+				assertEquals(expected, (int)size.get());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
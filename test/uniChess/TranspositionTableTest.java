@@ -0,0 +1,25 @@
+package uniChess;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TranspositionTableTest {
+
+	@Test
+	public void entriesArePowersOfTwoThatFit(){
+		assertEquals(1 << 16, TranspositionTable.entries(1));
+		assertEquals(1 << 16, TranspositionTable.entries(0));
+		assertEquals(1 << 22, TranspositionTable.entries(64));
+		assertEquals(1 << 22, TranspositionTable.entries(100));
+	}
+
+	/** Sizes of 16 GB and more used to overflow the array length and throw NegativeArraySizeException. */
+	@Test
+	public void entriesAreCappedToFitOneArray(){
+		assertEquals(TranspositionTable.MAX_ENTRIES, TranspositionTable.entries(8192));
+		assertEquals(TranspositionTable.MAX_ENTRIES, TranspositionTable.entries(16384));
+		assertEquals(TranspositionTable.MAX_ENTRIES, TranspositionTable.entries(20000));
+		assertEquals(TranspositionTable.MAX_ENTRIES, TranspositionTable.entries(Integer.MAX_VALUE));
+	}
+}
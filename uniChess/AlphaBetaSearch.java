@@ -0,0 +1,549 @@
+package uniChess;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+*	A negamax search with alpha-beta pruning. Where Chesster's strategy threads explore every reply tree in full,
+*	this search scores positions statically and cuts off every line that is already proven worse than one found
+*	before it, which lets it look several plies deeper in the same time.
+*	<p>
+*	The search walks the tree on a single {@link SearchBoard}, generating moves into one {@link MoveList} per ply
+*	and trying them in the order of a {@link MoveOrdering}.
+*	Results are stored in the {@link TranspositionTable}, so transposed positions are not searched twice. The
+*	principal variation is collected in a triangular table: the line below each ply is copied up into the line
+*	of its parent whenever a move raises alpha.
+*	<p>
+*	With more than one thread (see {@link #setThreads(int, ExecutorService)}) the search runs Lazy SMP: helper
+*	searches, each on its own board, search the same root alongside the main search, every other one starting
+*	a ply deeper so they are not all in step. They share nothing but the lock-free transposition table, through
+*	which each finds the positions the others have already resolved. When the main search is done it stops the
+*	helpers and answers with the deepest iteration any of them completed, with the nodes of all of them counted.
+*	<p>
+*	Positions are scored by the {@link Evaluator}: material, based on {@link Piece#value} (a pawn is worth 100),
+*	plus piece-square scores. Scores are in centipawns from the point of view of the side to move. A side that
+*	is mated in {@code n} plies scores {@code -MATE + n}.
+*	<p>
+*	At the horizon the search does not stop dead in the middle of an exchange: a quiescence search keeps
+*	trying captures and promotions until the position is quiet, skipping those that the static exchange
+*	evaluation of the board says lose material.
+*	<p>
+*	Only the first move of a node is searched with the full window: every other move is first searched with a
+*	zero window, which merely proves it is no better than the first, and searched again in full only when that
+*	proof fails (principal variation search).
+*	<p>
+*	The search deepens iteratively: it searches one ply deep, then two, and so on, trying the best move of each
+*	iteration first in the next. From the fourth iteration on, the root is searched with a narrow aspiration
+*	window around the score of the previous iteration, widened and searched again whenever the score falls
+*	outside it. It can be given a deadline, or stopped from another thread with {@link #stop()};
+*	either way it stops cooperatively, checking every few thousand nodes, and answers with the result of the last
+*	iteration it completed. The first iteration is always completed, so there is always a move to play.
+*/
+public class AlphaBetaSearch {
+
+	/** The score of being mated on the board; mates further away score closer to zero. */
+	public static final int MATE = 100000;
+
+	/** Scores beyond this bound (either way) are forced mates. */
+	public static final int MATE_BOUND = MATE - 1000;
+
+	/** The deepest ply the search can reach. */
+	public static final int MAX_PLY = 128;
+
+	private static final int INFINITY = MATE + 1;
+
+	/** Null moves are searched this many plies shallower than a real move would be, one more at high depths */
+	private static final int NULL_MOVE_REDUCTION = 2;
+
+	/** The number of moves searched in full at a node before late moves are reduced */
+	private static final int FULL_DEPTH_MOVES = 3;
+
+	/** The iteration from which the root is searched with an aspiration window */
+	private static final int ASPIRATION_DEPTH = 4;
+
+	/** The initial distance of the aspiration window from the previous score, in centipawns */
+	private static final int ASPIRATION_WINDOW = 50;
+
+	/** The number of nodes searched between checks of the deadline, less one */
+	private static final int CHECK_INTERVAL = 4095;
+
+	private final Board root;
+	private final SearchBoard board;
+	private final TranspositionTable table;
+	private final MoveOrdering ordering = new MoveOrdering(MAX_PLY);
+
+	private final MoveList[] moves = new MoveList[MAX_PLY + 1];
+	private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+	private final int[] pvLength = new int[MAX_PLY + 1];
+
+	private final SearchStatistics stats = new SearchStatistics();
+	private boolean nullMovePruning = true, lateMoveReductions = true;
+
+	/** The keys of the positions played in the game before the root, oldest first */
+	private long[] history = new long[0];
+
+	/** 0 for the main search, or the number of a helper searching alongside it */
+	private final int helper;
+	private int threads = 1;
+	private ExecutorService executor;
+
+	private long deadline;
+	private boolean timed, interruptible;
+	private volatile boolean stopped;
+
+	/**
+	*	@param board The position to search
+	*	@param table The transposition table to use
+	*/
+	public AlphaBetaSearch(Board board, TranspositionTable table){
+		this(board, table, 0);
+	}
+
+	private AlphaBetaSearch(Board board, TranspositionTable table, int helper){
+		this.helper = helper;
+		this.root = board;
+		this.board = new SearchBoard(board);
+		this.table = table;
+		for (int i = 0; i <= MAX_PLY; ++i)
+			moves[i] = new MoveList();
+	}
+
+	/**
+	*	Searches the position to a given depth. Moves that promote to anything but a queen are not
+	*	considered at the root, since Moves handed out through the public API always promote to a queen.
+	*
+	*	@param depth The number of plies to look ahead
+	*	@return The best move, its score and the principal variation
+	*/
+	public SearchResult search(int depth){
+		return search(depth, 0);
+	}
+
+	/**
+	*	Searches the position until a time budget runs out, deepening one ply at a time.
+	*
+	*	@param budget The time to search for
+	*	@return The result of the deepest iteration completed in time
+	*/
+	public SearchResult search(Duration budget){
+		return search(MAX_PLY - 1, Math.max(1, budget.toMillis()));
+	}
+
+	/**
+	*	Searches the position to a given depth or until a time budget runs out, whichever comes first.
+	*
+	*	@param depth The number of plies to look ahead
+	*	@param millis The time to search for in milliseconds, or 0 to search to the full depth
+	*	@return The result of the deepest iteration completed
+	*/
+	public SearchResult search(int depth, long millis){
+		long time = System.currentTimeMillis();
+		stats.clear();
+		depth = Math.max(1, Math.min(depth, MAX_PLY - 1));
+		deadline = time + millis;
+		timed = millis > 0;
+		interruptible = helper > 0;
+		ordering.newSearch();
+
+		List<AlphaBetaSearch> helpers = new ArrayList<>();
+		List<Future<SearchResult>> results = new ArrayList<>();
+		for (int i = 1; i < threads; ++i){
+			AlphaBetaSearch h = new AlphaBetaSearch(root, table, i);
+			h.nullMovePruning = nullMovePruning;
+			h.lateMoveReductions = lateMoveReductions;
+			h.setHistory(history);
+			final int maxDepth = depth;
+			helpers.add(h);
+			results.add(executor.submit(() -> h.search(maxDepth, 0)));
+		}
+
+		int[] line = new int[0];
+		int score = 0, completed = 0;
+		for (int d = 1 + (helper & 1); d <= depth; ++d){
+			int s = aspirate(d, (line.length > 0) ? line[0] : 0, score);
+			if (stopped && interruptible)
+				break;
+
+			score = s;
+			completed = d;
+			line = new int[pvLength[0]];
+			System.arraycopy(pv[0], 0, line, 0, line.length);
+			interruptible = true;
+
+			if (line.length == 0 || stopped || timeUp())
+				break;
+		}
+
+		for (AlphaBetaSearch h : helpers)
+			h.stop();
+		for (int i = 0; i < results.size(); ++i){
+			SearchResult r;
+			try{
+				r = results.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				continue;
+			} catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+			if (r.getDepth() > completed && r.getBestMoveCode() != 0){
+				line = r.getPrincipalVariationCodes();
+				score = r.getScore();
+				completed = r.getDepth();
+			}
+			stats.add(helpers.get(i).stats);
+		}
+
+		stopped = false;
+		return new SearchResult(root, line, score, completed, stats, System.currentTimeMillis() - time);
+	}
+
+	/**
+	*	Sets the number of threads to search on. Every thread besides the calling one runs a helper search
+	*	on the given executor, which must be able to run that many tasks at once.
+	*
+	*	@param threads The number of threads, the calling thread included
+	*	@param executor The executor to run the helper searches on, unused with a single thread
+	*/
+	public void setThreads(int threads, ExecutorService executor){
+		if (threads < 1)
+			throw new IllegalArgumentException("Thread count must be positive: "+threads);
+		this.threads = threads;
+		this.executor = executor;
+	}
+
+	/**
+	*	Enables or disables null-move pruning: before searching its moves, the side to move passes, and if a
+	*	shallower search shows its position is still good enough for a cutoff, the node is cut off without
+	*	searching any move. Passing is never tried in check or when the side to move has only pawns left, where
+	*	being obliged to move can be a disadvantage (zugzwang) and passing would mislead the search.
+	*
+	*	@param enabled Whether to prune with null moves
+	*/
+	public void setNullMovePruning(boolean enabled){
+		nullMovePruning = enabled;
+	}
+
+	/**
+	*	Enables or disables late move reductions: quiet moves ordered late at a node are searched a ply or two
+	*	shallower, the later the more, and only searched again to full depth if they turn out to raise alpha.
+	*
+	*	@param enabled Whether to reduce late moves
+	*/
+	public void setLateMoveReductions(boolean enabled){
+		lateMoveReductions = enabled;
+	}
+
+	/**
+	*	Sets the positions played in the game before the root, so that lines returning to one of them are scored 
+	*	as draws by repetition just like lines repeating a position of their own.
+	*
+	*	@param keys The Zobrist keys of the positions played before the root, oldest first (see {@link Game#getRepetitionKeys()})
+	*/
+	public void setHistory(long[] keys){
+		history = keys.clone();
+		board.setHistory(history);
+	}
+
+	/**
+	*	Asks a running search to stop. The search returns the result of the last iteration it completed
+	*	as soon as it notices, or completes its first iteration if it has not yet.
+	*/
+	public void stop(){
+		stopped = true;
+	}
+
+	/**
+	*	@return The number of positions visited by the last search
+	*/
+	public long getNodes(){
+		return stats.nodes;
+	}
+
+	private boolean timeUp(){
+		return timed && System.currentTimeMillis() >= deadline;
+	}
+
+	/**
+	*	Searches the root in a window around the previous iteration's score, widening the window on the side the
+	*	score fell out of, twice as far each time, until the score falls inside it.
+	*/
+	private int aspirate(int depth, int first, int previous){
+		if (depth < ASPIRATION_DEPTH || Math.abs(previous) > MATE_BOUND)
+			return searchRoot(depth, first, -INFINITY, INFINITY);
+
+		int delta = ASPIRATION_WINDOW;
+		int alpha = previous - delta, beta = previous + delta;
+		while (true){
+			int score = searchRoot(depth, first, alpha, beta);
+			if (stopped && interruptible)
+				return 0;
+
+			if (score <= alpha)
+				alpha = Math.max(-INFINITY, score - delta);
+			else if (score >= beta)
+				beta = Math.min(INFINITY, score + delta);
+			else return score;
+
+			++stats.aspirationReSearches;
+			delta *= 2;
+		}
+	}
+
+	private int searchRoot(int depth, int first, int alpha, int beta){
+		MoveList list = moves[0];
+		board.generateLegalMoves(board.getSideToMove(), list);
+
+		int kept = 0;
+		for (int i = 0; i < list.size(); ++i){
+			int move = list.get(i);
+			if (!Move.isPromotion(move) || Move.promotionType(move) == Game.PieceType.QUEEN)
+				list.set(kept++, move);
+		}
+		list.truncate(kept);
+
+		ordering.score(board, list, 0, first);
+		pvLength[0] = 0;
+		if (list.isEmpty())
+			return board.isInCheck(board.getSideToMove()) ? -MATE : 0;
+
+		++stats.nodes;
+		int originalAlpha = alpha;
+		int best = -INFINITY, bestMove = 0;
+		for (int i = 0; i < list.size(); ++i){
+			int move = ordering.next(list, 0, i);
+			board.makeMove(move);
+			int score;
+			if (i == 0)
+				score = -search(depth - 1, -beta, -alpha, 1, true);
+			else {
+				score = -search(depth - 1, -alpha - 1, -alpha, 1, true);
+				if (score > alpha && score < beta){
+					++stats.pvReSearches;
+					score = -search(depth - 1, -beta, -alpha, 1, true);
+				}
+			}
+			board.unmakeMove();
+			if (stopped && interruptible)
+				return 0;
+
+			if (score > best){
+				best = score;
+				bestMove = move;
+				if (score > alpha){
+					alpha = score;
+					updatePv(0, move);
+					if (alpha >= beta)
+						break;
+				}
+			}
+		}
+
+		int bound = (best >= beta) ? TranspositionTable.BOUND_LOWER
+				: (best > originalAlpha) ? TranspositionTable.BOUND_EXACT
+				: TranspositionTable.BOUND_UPPER;
+		table.store(board.getKey(), depth, bound, best, bestMove);
+		return best;
+	}
+
+	private int search(int depth, int alpha, int beta, int ply, boolean allowNull){
+		pvLength[ply] = ply;
+		if ((++stats.nodes & CHECK_INTERVAL) == 0 && interruptible && timeUp())
+			stopped = true;
+		if (stopped && interruptible)
+			return 0;
+
+		if (board.getHalfmoveClock() >= 100 || board.isRepetition())
+			return 0;
+
+		if (depth <= 0 || ply >= MAX_PLY)
+			return quiesce(alpha, beta, ply);
+
+		long key = board.getKey();
+		long entry = table.probe(key);
+		int ttMove = (entry != 0) ? TranspositionTable.move(entry) : 0;
+		if (entry != 0 && TranspositionTable.depth(entry) >= depth){
+			int score = fromTable(TranspositionTable.score(entry), ply);
+			int bound = TranspositionTable.bound(entry);
+			if (bound == TranspositionTable.BOUND_EXACT
+				|| (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+				|| (bound == TranspositionTable.BOUND_UPPER && score <= alpha))
+				return score;
+		}
+
+		Game.Color side = board.getSideToMove();
+		boolean inCheck = board.isInCheck(side);
+
+		if (nullMovePruning && allowNull && !inCheck && depth > NULL_MOVE_REDUCTION && Math.abs(beta) < MATE_BOUND
+			&& hasPieces(side) && evaluate() >= beta){
+			++stats.nullMoveTries;
+			board.makeNullMove();
+			int score = -search(depth - 1 - NULL_MOVE_REDUCTION - (depth > 6 ? 1 : 0), -beta, -beta + 1, ply + 1, false);
+			board.unmakeMove();
+			if (stopped && interruptible)
+				return 0;
+			if (score >= beta){
+				++stats.nullMoveCutoffs;
+				return (score > MATE_BOUND) ? beta : score;
+			}
+		}
+
+		MoveList list = moves[ply];
+		board.generateLegalMoves(side, list);
+		if (list.isEmpty())
+			return inCheck ? -MATE + ply : 0;
+		ordering.score(board, list, ply, ttMove);
+
+		int originalAlpha = alpha;
+		int best = -INFINITY, bestMove = 0;
+		for (int i = 0; i < list.size(); ++i){
+			int move = ordering.next(list, ply, i);
+			board.makeMove(move);
+
+			int score;
+			int reduction = (lateMoveReductions && i >= FULL_DEPTH_MOVES && depth >= 3 && !inCheck && isQuiet(move, ply)
+				&& !board.isInCheck(board.getSideToMove())) ? (i >= 2 * FULL_DEPTH_MOVES && depth >= 6 ? 2 : 1) : 0;
+			if (i == 0)
+				score = -search(depth - 1, -beta, -alpha, ply + 1, true);
+			else {
+				if (reduction > 0)
+					++stats.reductions;
+				score = -search(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+				if (reduction > 0 && score > alpha){
+					++stats.reSearches;
+					score = -search(depth - 1, -alpha - 1, -alpha, ply + 1, true);
+				}
+				if (score > alpha && score < beta){
+					++stats.pvReSearches;
+					score = -search(depth - 1, -beta, -alpha, ply + 1, true);
+				}
+			}
+
+			board.unmakeMove();
+			if (stopped && interruptible)
+				return 0;
+
+			if (score > best){
+				best = score;
+				bestMove = move;
+				if (score > alpha){
+					alpha = score;
+					updatePv(ply, move);
+					if (alpha >= beta){
+						ordering.cutoff(board, move, ply, depth);
+						break;
+					}
+				}
+			}
+		}
+
+		int bound = (best >= beta) ? TranspositionTable.BOUND_LOWER
+				: (best > originalAlpha) ? TranspositionTable.BOUND_EXACT
+				: TranspositionTable.BOUND_UPPER;
+		table.store(key, depth, bound, toTable(best, ply), bestMove);
+		return best;
+	}
+
+	/**
+	*	Searches captures and promotions only, until the position is quiet. The side to move may also "stand pat"
+	*	on the static evaluation, since it is not forced to capture; a side in check has to answer it, so all its
+	*	moves are searched instead.
+	*/
+	private int quiesce(int alpha, int beta, int ply){
+		pvLength[ply] = ply;
+		if ((++stats.nodes & CHECK_INTERVAL) == 0 && interruptible && timeUp())
+			stopped = true;
+		if (stopped && interruptible)
+			return 0;
+
+		if (ply >= MAX_PLY)
+			return evaluate();
+
+		Game.Color side = board.getSideToMove();
+		boolean inCheck = board.isInCheck(side);
+		int best = -INFINITY;
+		if (!inCheck){
+			best = evaluate();
+			if (best >= beta)
+				return best;
+			alpha = Math.max(alpha, best);
+		}
+
+		MoveList list = moves[ply];
+		board.generateLegalMoves(side, list);
+		if (list.isEmpty())
+			return inCheck ? -MATE + ply : 0;
+
+		if (!inCheck){
+			int kept = 0;
+			for (int i = 0; i < list.size(); ++i){
+				int move = list.get(i);
+				if ((Move.isCapture(move) && !Move.isPromotion(move)) || (Move.isPromotion(move) && Move.promotionType(move) == Game.PieceType.QUEEN))
+					list.set(kept++, move);
+			}
+			list.truncate(kept);
+		}
+		ordering.score(board, list, ply, 0);
+
+		for (int i = 0; i < list.size(); ++i){
+			int move = ordering.next(list, ply, i);
+			if (!inCheck && board.staticExchange(move) < 0)
+				continue;
+
+			board.makeMove(move);
+			int score = -quiesce(-beta, -alpha, ply + 1);
+			board.unmakeMove();
+			if (stopped && interruptible)
+				return 0;
+
+			if (score > best){
+				best = score;
+				if (score > alpha){
+					alpha = score;
+					if (alpha >= beta)
+						break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/** Whether a move is neither a capture nor a promotion, nor one of the killer moves of its ply. */
+	private boolean isQuiet(int move, int ply){
+		return !Move.isCapture(move) && !Move.isPromotion(move) && !ordering.isKiller(move, ply);
+	}
+
+	/** Whether a side has any piece besides its king and pawns, so that passing is not a sign of zugzwang. */
+	private boolean hasPieces(Game.Color c){
+		return (board.getOccupancy(c) & ~board.getBitboard(c, Game.PieceType.PAWN) & ~board.getBitboard(c, Game.PieceType.KING)) != 0;
+	}
+
+	/** Makes a move followed by the principal variation below it the principal variation of a ply. */
+	private void updatePv(int ply, int move){
+		pv[ply][ply] = move;
+		System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+		pvLength[ply] = Math.max(ply + 1, pvLength[ply + 1]);
+	}
+
+	/**
+	*	Scores the position with the board's running evaluation totals (see {@link Evaluator}).
+	*
+	*	@return The score in centipawns, from the point of view of the side to move
+	*/
+	private int evaluate(){
+		return Evaluator.evaluate(board);
+	}
+
+	/** Mate scores are stored relative to the position they are found in, not to the root. */
+	private static int toTable(int score, int ply){
+		return (score > MATE_BOUND) ? score + ply : (score < -MATE_BOUND) ? score - ply : score;
+	}
+
+	private static int fromTable(int score, int ply){
+		return (score > MATE_BOUND) ? score - ply : (score < -MATE_BOUND) ? score + ply : score;
+	}
+}
@@ -0,0 +1,271 @@
+package uniChess;
+
+/**
+*	Precomputed attack tables for every piece type. Leaper attacks (knights, kings and pawns) are read straight
+*	out of a table indexed by square, while slider attacks (rooks, bishops and queens) are looked up through
+*	magic bitboards: the blockers on a piece's rays are multiplied by a magic number and shifted down to an index
+*	into a table of attack sets, so every query is a constant-time lookup regardless of board occupancy.
+*	<p>
+*	Squares are indexed as on the {@link Board}, from 0 (a1) to 63 (h8). All tables are built once when this
+*	class is first loaded.
+*/
+public final class Bitboards {
+
+	/** Files A and H, used to stop leaper attacks wrapping around the board edge. */
+	public static final long FILE_A = 0x0101010101010101L;
+	public static final long FILE_H = FILE_A << 7;
+
+	/** Ranks 1 and 8. */
+	public static final long RANK_1 = 0xFFL;
+	public static final long RANK_8 = RANK_1 << 56;
+
+	private static final long[] KNIGHT_ATTACKS = new long[64];
+	private static final long[] KING_ATTACKS = new long[64];
+	private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+	private static final long[][] BETWEEN = new long[64][64];
+	private static final long[][] LINE = new long[64][64];
+
+	private static final long[] ROOK_MASKS = new long[64];
+	private static final int[] ROOK_SHIFTS = new int[64];
+	private static final long[][] ROOK_TABLE = new long[64][];
+
+	private static final long[] BISHOP_MASKS = new long[64];
+	private static final int[] BISHOP_SHIFTS = new int[64];
+	private static final long[][] BISHOP_TABLE = new long[64][];
+
+	/*
+	*	Magic multipliers for each square. They were found by trial: random sparse numbers were tried
+	*	until one mapped every blocker subset of the square's mask to an index without destructive collisions.
+	*/
+	private static final long[] ROOK_MAGICS = {
+		0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+		0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+		0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+		0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+		0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+		0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+		0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+		0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+		0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+		0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+		0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+		0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+		0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+		0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+		0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+		0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+	};
+
+	private static final long[] BISHOP_MAGICS = {
+		0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+		0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+		0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+		0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+		0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+		0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+		0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+		0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+		0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+		0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+		0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+		0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+		0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+		0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+		0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+		0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L
+	};
+
+	private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+	private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+	static {
+		for (int sq = 0; sq < 64; ++sq){
+			KNIGHT_ATTACKS[sq] = leaperAttacks(sq, new int[][]{{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}});
+			KING_ATTACKS[sq] = leaperAttacks(sq, new int[][]{{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}});
+			PAWN_ATTACKS[Game.Color.WHITE.ordinal()][sq] = leaperAttacks(sq, new int[][]{{-1, 1}, {1, 1}});
+			PAWN_ATTACKS[Game.Color.BLACK.ordinal()][sq] = leaperAttacks(sq, new int[][]{{-1, -1}, {1, -1}});
+		}
+
+		for (int a = 0; a < 64; ++a){
+			for (int[] d : ROOK_DIRECTIONS)
+				fillBetween(a, d);
+			for (int[] d : BISHOP_DIRECTIONS)
+				fillBetween(a, d);
+		}
+
+		for (int a = 0; a < 64; ++a){
+			for (int b = 0; b < 64; ++b){
+				if (a == b)
+					continue;
+				long bits = (1L << a) | (1L << b);
+				if ((slidingAttacks(a, 0, ROOK_DIRECTIONS) & (1L << b)) != 0)
+					LINE[a][b] = (slidingAttacks(a, 0, ROOK_DIRECTIONS) & slidingAttacks(b, 0, ROOK_DIRECTIONS)) | bits;
+				else if ((slidingAttacks(a, 0, BISHOP_DIRECTIONS) & (1L << b)) != 0)
+					LINE[a][b] = (slidingAttacks(a, 0, BISHOP_DIRECTIONS) & slidingAttacks(b, 0, BISHOP_DIRECTIONS)) | bits;
+			}
+		}
+
+		for (int sq = 0; sq < 64; ++sq){
+			initMagic(sq, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS[sq], ROOK_SHIFTS, ROOK_TABLE);
+			initMagic(sq, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS[sq], BISHOP_SHIFTS, BISHOP_TABLE);
+		}
+	}
+
+	private Bitboards(){}
+
+	/**
+	*	@param sq The square of the knight
+	*	@return The squares attacked by a knight on the given square
+	*/
+	public static long knightAttacks(int sq){
+		return KNIGHT_ATTACKS[sq];
+	}
+
+	/**
+	*	@param sq The square of the king
+	*	@return The squares attacked by a king on the given square (castling excluded)
+	*/
+	public static long kingAttacks(int sq){
+		return KING_ATTACKS[sq];
+	}
+
+	/**
+	*	@param c The color of the pawn
+	*	@param sq The square of the pawn
+	*	@return The squares a pawn of the given color attacks diagonally from the given square
+	*/
+	public static long pawnAttacks(Game.Color c, int sq){
+		return PAWN_ATTACKS[c.ordinal()][sq];
+	}
+
+	/**
+	*	Returns the squares attacked by a rook, up to and including the first blocker on each ray.
+	*
+	*	@param sq The square of the rook
+	*	@param occupied The occupancy of the board
+	*	@return The attacked squares
+	*/
+	public static long rookAttacks(int sq, long occupied){
+		return ROOK_TABLE[sq][(int)(((occupied & ROOK_MASKS[sq]) * ROOK_MAGICS[sq]) >>> ROOK_SHIFTS[sq])];
+	}
+
+	/**
+	*	Returns the squares attacked by a bishop, up to and including the first blocker on each ray.
+	*
+	*	@param sq The square of the bishop
+	*	@param occupied The occupancy of the board
+	*	@return The attacked squares
+	*/
+	public static long bishopAttacks(int sq, long occupied){
+		return BISHOP_TABLE[sq][(int)(((occupied & BISHOP_MASKS[sq]) * BISHOP_MAGICS[sq]) >>> BISHOP_SHIFTS[sq])];
+	}
+
+	/**
+	*	@param sq The square of the queen
+	*	@param occupied The occupancy of the board
+	*	@return The squares attacked by a queen, up to and including the first blocker on each ray
+	*/
+	public static long queenAttacks(int sq, long occupied){
+		return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+	}
+
+	/**
+	*	Returns the squares strictly between two squares sharing a rank, file or diagonal.
+	*
+	*	@param a The first square
+	*	@param b The second square
+	*	@return The squares between a and b, or 0 if they are not aligned or are adjacent
+	*/
+	public static long between(int a, int b){
+		return BETWEEN[a][b];
+	}
+
+	/**
+	*	Returns the whole rank, file or diagonal running through two squares, edge to edge.
+	*
+	*	@param a The first square
+	*	@param b The second square
+	*	@return The line through a and b (both included), or 0 if they are not aligned
+	*/
+	public static long line(int a, int b){
+		return LINE[a][b];
+	}
+
+	private static long leaperAttacks(int sq, int[][] offsets){
+		long attacks = 0;
+		int x = sq & 7, y = sq >>> 3;
+		for (int[] o : offsets){
+			int tx = x + o[0], ty = y + o[1];
+			if (tx >= 0 && tx < 8 && ty >= 0 && ty < 8)
+				attacks |= 1L << Board.square(tx, ty);
+		}
+		return attacks;
+	}
+
+	private static void fillBetween(int a, int[] d){
+		long ray = 0;
+		for (int x = (a & 7) + d[0], y = (a >>> 3) + d[1]; x >= 0 && x < 8 && y >= 0 && y < 8; x += d[0], y += d[1]){
+			int b = Board.square(x, y);
+			BETWEEN[a][b] = ray;
+			ray |= 1L << b;
+		}
+	}
+
+	/**
+	*	Walks every ray from a square until it leaves the board or hits an occupied square.
+	*	This is only used while building the tables.
+	*/
+	private static long slidingAttacks(int sq, long occupied, int[][] directions){
+		long attacks = 0;
+		for (int[] d : directions){
+			for (int x = (sq & 7) + d[0], y = (sq >>> 3) + d[1]; x >= 0 && x < 8 && y >= 0 && y < 8; x += d[0], y += d[1]){
+				long bit = 1L << Board.square(x, y);
+				attacks |= bit;
+				if ((occupied & bit) != 0)
+					break;
+			}
+		}
+		return attacks;
+	}
+
+	/**
+	*	Returns the relevant blocker mask of a slider: every square on its rays except the last one on each,
+	*	since a piece on the board edge can never hide anything behind it.
+	*/
+	private static long relevantMask(int sq, int[][] directions){
+		long mask = 0;
+		for (int[] d : directions){
+			for (int x = (sq & 7) + d[0], y = (sq >>> 3) + d[1]; ; x += d[0], y += d[1]){
+				int nx = x + d[0], ny = y + d[1];
+				if (x < 0 || x > 7 || y < 0 || y > 7 || nx < 0 || nx > 7 || ny < 0 || ny > 7)
+					break;
+				mask |= 1L << Board.square(x, y);
+			}
+		}
+		return mask;
+	}
+
+	private static void initMagic(int sq, int[][] directions, long[] masks, long magic, int[] shifts, long[][] table){
+		long mask = relevantMask(sq, directions);
+		int bits = Long.bitCount(mask);
+		long[] entries = new long[1 << bits];
+		boolean[] used = new boolean[1 << bits];
+
+		// Enumerate every subset of the mask (the Carry-Rippler trick)
+		long subset = 0;
+		do {
+			long attacks = slidingAttacks(sq, subset, directions);
+			int index = (int)((subset * magic) >>> (64 - bits));
+			if (used[index] && entries[index] != attacks)
+				throw new IllegalStateException("Magic for square "+sq+" maps two attack sets to one index");
+			used[index] = true;
+			entries[index] = attacks;
+			subset = (subset - mask) & mask;
+		} while (subset != 0);
+
+		masks[sq] = mask;
+		shifts[sq] = 64 - bits;
+		table[sq] = entries;
+	}
+}
@@ -2,111 +2,480 @@ package uniChess;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Arrays;
 
 /**
-*	An object holding a boardstate. Each Board holds an array of 64 Tiles, any of which can be occupied by a Piece.
+*	An object holding a boardstate. Each Board holds twelve bitboards (one per color and piece type) along with
+*	occupancy masks for each color; the 64 Tiles exposed by {@link #getTile(Location)} and {@link #getBoardState()}
+*	are lightweight views over that representation.
 *	A board state will never actually change. When performMove() is called a new board is generated with the new boardstate.
 *	This means that all information about this board (including legal moves, piece locations, etc) is in an artificial static state.
 *	<p> 
-*	Since all information about the board will never change, two lists of legal moves for each player is generated on creation. 
-*	These lists will be publicly acessable and unchanging so that no additional calculation will need to be done for the board. 
+*	Move lists are generated lazily: the valid and legal moves of a color are only worked out the first time they are 
+*	asked for, by {@link MoveGenerator} and then the board's {@code LegalityFilter}, and are cached on the board from then 
+*	on, so no additional calculation is needed for later requests. Search code that only needs move codes can use 
+*	{@link #generateLegalMoves(Game.Color, MoveList)}, which fills a {@link MoveList} without caching anything.
+*	<p>
+*	Squares are indexed from 0 (a1) to 63 (h8), so the square of a Location is {@code y * 8 + x} and the bit of a square
+*	within a bitboard is {@code 1L << square}.
 */
 public class Board {
-	private Tile[][] state = new Tile[8][8];
+	/** One bitboard per color and piece type, indexed by {@link #pieceIndex(Game.Color, Game.PieceType)}. */
+	private long[] pieces = new long[12];
 
-	private List<Move> legalWhiteMoves;
-	private List<Move> legalBlackMoves;
+	/** Occupancy of each color, indexed by color ordinal. */
+	private long[] colors = new long[2];
 
-	private List<Move> validWhiteMoves;
-	private List<Move> validBlackMoves;
+	/** Occupancy of both colors. */
+	private long occupied;
+
+	/** The piece standing on each square, indexed by square. */
+	private Piece[] squares = new Piece[64];
+
+	/** The color whose turn it is in this position. */
+	private Game.Color sideToMove = Game.Color.WHITE;
+
+	/** Castling rights still available, as a combination of the {@code CASTLE_} bits. */
+	int castlingRights = CASTLE_ALL;
+
+	/** The square a pawn skipped over with a double push on the last move, or -1. */
+	int enPassantSquare = -1;
+
+	/** The number of moves since the last capture or pawn move, for the fifty-move rule. */
+	int halfmoveClock = 0;
+
+	/** The number of the current full move, starting at 1 and incremented after each Black move. */
+	int fullmoveNumber = 1;
+
+	/** Zobrist key of this position, kept up to date as the position changes (see {@link Zobrist}). */
+	private long key;
+
+	/** Running totals of the middlegame and endgame scores and the game phase (see {@link Evaluator}). */
+	private int middlegameScore, endgameScore, phase;
+
+	/** The square of each color's king, indexed by color ordinal, or -1 if the board holds no such king. */
+	private int[] kingSquares = {-1, -1};
+
+	static final int CASTLE_WHITE_KING = 1, CASTLE_WHITE_QUEEN = 2, CASTLE_BLACK_KING = 4, CASTLE_BLACK_QUEEN = 8;
+	static final int CASTLE_ALL = 15;
+
+	/** The castling rights that survive a move from or to each square. */
+	private static final int[] CASTLING_MASK = new int[64];
+	static {
+		Arrays.fill(CASTLING_MASK, CASTLE_ALL);
+		CASTLING_MASK[square(4, 0)] &= ~(CASTLE_WHITE_KING | CASTLE_WHITE_QUEEN);
+		CASTLING_MASK[square(7, 0)] &= ~CASTLE_WHITE_KING;
+		CASTLING_MASK[square(0, 0)] &= ~CASTLE_WHITE_QUEEN;
+		CASTLING_MASK[square(4, 7)] &= ~(CASTLE_BLACK_KING | CASTLE_BLACK_QUEEN);
+		CASTLING_MASK[square(7, 7)] &= ~CASTLE_BLACK_KING;
+		CASTLING_MASK[square(0, 7)] &= ~CASTLE_BLACK_QUEEN;
+	}
+
+	/*
+	*	The Tiles and move lists are only built the first time they are asked for. The fields are volatile so that
+	*	a board shared between threads, such as a simulation handed out by the {@link SimulationCache}, publishes
+	*	them fully built; two threads asking at once may both build one, and either result is as good.
+	*/
+	private volatile Tile[][] state;
+
+	private volatile List<Move> legalWhiteMoves;
+	private volatile List<Move> legalBlackMoves;
+
+	private volatile List<Move> validWhiteMoves;
+	private volatile List<Move> validBlackMoves;
 
 	private List<Piece> deathRow = new ArrayList<>();
 
+	/** A key of the pieces in the death row and their order, kept up to date as pieces are added (see {@link Zobrist#captured(int, int)}). */
+	private long deathRowKey;
+
 
 	/** Sets the orientation of the string representation of the board. */
 	public static boolean reversed;
 
 	public Board(Board other){
-		for (int y = 0; y < 8; ++y)
-			for (int x = 0; x < 8; ++x)
-				state[y][x] = new Tile(other.getTile(x, 7-y));
+		System.arraycopy(other.pieces, 0, this.pieces, 0, 12);
+		System.arraycopy(other.colors, 0, this.colors, 0, 2);
+		this.occupied = other.occupied;
+		this.sideToMove = other.sideToMove;
+		this.castlingRights = other.castlingRights;
+		this.enPassantSquare = other.enPassantSquare;
+		this.halfmoveClock = other.halfmoveClock;
+		this.fullmoveNumber = other.fullmoveNumber;
+		this.key = other.key;
+		this.middlegameScore = other.middlegameScore;
+		this.endgameScore = other.endgameScore;
+		this.phase = other.phase;
+		System.arraycopy(other.kingSquares, 0, this.kingSquares, 0, 2);
+		System.arraycopy(other.squares, 0, this.squares, 0, 64);
 		this.deathRow.addAll(other.deathRow);
+		this.deathRowKey = other.deathRowKey;
 	}
 
 	public Board(){
-		for (int y = 0; y < 8; ++y)
-			for (int x = 0; x < 8; ++x)
-				state[y][x] = new Tile(new Location(x, 7-y));
-
 		createMaterial(Game.Color.BLACK);
 		createMaterial(Game.Color.WHITE);
+		key ^= Zobrist.castling(castlingRights);
+	}
+
+	/**
+	*	Creates the board of a position given in Forsyth-Edwards Notation, such as the well known perft test
+	*	positions. The move counters may be left out and default to 0 and 1.
+	*
+	*	@param fen The position in FEN
+	*	@return The board of the position
+	*	@throws IllegalArgumentException If the string is not a valid FEN position
+	*/
+	public static Board fromFen(String fen){
+		String[] fields = fen.trim().split("\\s+");
+		if (fields.length < 4)
+			throw new IllegalArgumentException("Expected at least four fields in FEN: "+fen);
+
+		Board board = new Board();
+		for (int sq = 0; sq < 64; ++sq)
+			board.setPiece(sq, null);
+		board.key = 0;
+
+		String[] ranks = fields[0].split("/");
+		if (ranks.length != 8)
+			throw new IllegalArgumentException("Expected eight ranks in FEN: "+fen);
+		for (int r = 0; r < 8; ++r){
+			int x = 0;
+			for (char c : ranks[r].toCharArray()){
+				int type = "PRNBQK".indexOf(Character.toUpperCase(c));
+				if (c >= '1' && c <= '8')
+					x += c - '0';
+				else if (type >= 0 && x < 8){
+					Game.Color color = Character.isUpperCase(c) ? Game.Color.WHITE : Game.Color.BLACK;
+					board.setPiece(square(x++, 7 - r), Piece.of(color, Game.PieceType.values()[type]));
+				}
+				else throw new IllegalArgumentException("Invalid rank '"+ranks[r]+"' in FEN: "+fen);
+			}
+			if (x != 8)
+				throw new IllegalArgumentException("Invalid rank '"+ranks[r]+"' in FEN: "+fen);
+		}
+
+		if (fields[1].equals("b")){
+			board.sideToMove = Game.Color.BLACK;
+			board.key ^= Zobrist.side();
+		}
+		else if (!fields[1].equals("w"))
+			throw new IllegalArgumentException("Invalid side to move '"+fields[1]+"' in FEN: "+fen);
+
+		board.castlingRights = 0;
+		if (!fields[2].equals("-")){
+			for (char c : fields[2].toCharArray()){
+				int right = "KQkq".indexOf(c);
+				if (right < 0)
+					throw new IllegalArgumentException("Invalid castling rights '"+fields[2]+"' in FEN: "+fen);
+				board.castlingRights |= 1 << right;
+			}
+		}
+		board.key ^= Zobrist.castling(board.castlingRights);
+
+		if (!fields[3].equals("-")){
+			if (!fields[3].matches("[a-h][36]"))
+				throw new IllegalArgumentException("Invalid en passant square '"+fields[3]+"' in FEN: "+fen);
+			board.enPassantSquare = square(fields[3].charAt(0) - 'a', fields[3].charAt(1) - '1');
+			board.key ^= board.enPassantKey();
+		}
+
+		try {
+			if (fields.length > 4)
+				board.halfmoveClock = Integer.parseInt(fields[4]);
+			if (fields.length > 5)
+				board.fullmoveNumber = Integer.parseInt(fields[5]);
+		} catch (NumberFormatException e){
+			throw new IllegalArgumentException("Invalid move counters in FEN: "+fen);
+		}
+		return board;
 	}
 
 	private void createMaterial(Game.Color color){
-   		int d = (color.equals(Game.Color.BLACK))?-1:1;
-        Location org = (d>0)?new Location(0,0):new Location(7,7);
+		int y = (color.equals(Game.Color.WHITE)) ? 0 : 7;
+		int pawnY = (color.equals(Game.Color.WHITE)) ? 1 : 6;
 
-        getTile(org.x+(d*0), org.y).setOccupator(new Piece(color, Game.PieceType.ROOK));
-        getTile(org.x+(d*7), org.y).setOccupator(new Piece(color, Game.PieceType.ROOK));
+		setPiece(square(0, y), Piece.of(color, Game.PieceType.ROOK));
+		setPiece(square(7, y), Piece.of(color, Game.PieceType.ROOK));
 
-        getTile(org.x+(d*1), org.y).setOccupator(new Piece(color, Game.PieceType.KNIGHT));
-        getTile(org.x+(d*6), org.y).setOccupator(new Piece(color, Game.PieceType.KNIGHT));
+		setPiece(square(1, y), Piece.of(color, Game.PieceType.KNIGHT));
+		setPiece(square(6, y), Piece.of(color, Game.PieceType.KNIGHT));
 
-       getTile(org.x+(d*2), org.y).setOccupator(new Piece(color, Game.PieceType.BISHOP));
-       getTile(org.x+(d*5), org.y).setOccupator(new Piece(color, Game.PieceType.BISHOP));
+		setPiece(square(2, y), Piece.of(color, Game.PieceType.BISHOP));
+		setPiece(square(5, y), Piece.of(color, Game.PieceType.BISHOP));
 
-        // King and queen are symmetrical
-        getTile(org.x+(d*((d>0)?4:3)), org.y).setOccupator(new Piece(color, Game.PieceType.KING));
-        getTile(org.x+(d*((d>0)?3:4)), org.y).setOccupator(new Piece(color, Game.PieceType.QUEEN));
+		setPiece(square(3, y), Piece.of(color, Game.PieceType.QUEEN));
+		setPiece(square(4, y), Piece.of(color, Game.PieceType.KING));
 
-        for (int i = 0; i < 8; ++i)
-           getTile(i, ((d>0)?org.y+1:org.y-1)).setOccupator(new Piece(color, Game.PieceType.PAWN));
-    }
+		for (int i = 0; i < 8; ++i)
+			setPiece(square(i, pawnY), Piece.of(color, Game.PieceType.PAWN));
+	}
 
-    protected List<Tile> tileList = new ArrayList<>();
-    /**
-    *	@return A list of this Board's Tile objects 
-    */
-    public List<Tile> getTileList(){
-        if (tileList.isEmpty()) {
-            for (int i = 0; i < 8; ++i)
-                for (int j = 0; j < 8; ++j)
-                    tileList.add(state[i][j]);
-        }
-        return tileList;
-    }
+	/**
+	*	Returns the index of the bitboard holding pieces of a given color and type.
+	*
+	*	@param c The color of the pieces
+	*	@param t The type of the pieces
+	*	@return The bitboard index, from 0 to 11
+	*/
+	static int pieceIndex(Game.Color c, Game.PieceType t){
+		return c.ordinal() * 6 + t.ordinal();
+	}
+
+	/**
+	*	Returns the square index (0 for a1 through 63 for h8) of a coordinate pair.
+	*
+	*	@param x x-coordinate of the square
+	*	@param y y-coordinate of the square
+	*	@return The square index
+	*/
+	static int square(int x, int y){
+		return (y << 3) | x;
+	}
+
+	static int square(Location l){
+		return l.getSquare();
+	}
+
+	/**
+	*	Returns the bitboard of all pieces of a given color and type.
+	*
+	*	@param c The color of the pieces
+	*	@param t The type of the pieces
+	*	@return A bitboard with one bit set for every such piece
+	*/
+	public long getBitboard(Game.Color c, Game.PieceType t){
+		return pieces[pieceIndex(c, t)];
+	}
+
+	/**
+	*	@param c The color to get the occupancy for
+	*	@return A bitboard with one bit set for every piece of the given color
+	*/
+	public long getOccupancy(Game.Color c){
+		return colors[c.ordinal()];
+	}
+
+	/**
+	*	@return A bitboard with one bit set for every occupied square
+	*/
+	public long getOccupancy(){
+		return occupied;
+	}
+
+	/**
+	*	Returns the piece standing on a square, or null if the square is empty.
+	*
+	*	@param sq The square index
+	*	@return The piece on the square
+	*/
+	Piece pieceAt(int sq){
+		return squares[sq];
+	}
+
+	Piece pieceAt(int x, int y){
+		return squares[square(x, y)];
+	}
+
+	/**
+	*	Places a piece on a square, replacing whatever stood there and keeping every bitboard, the key, the
+	*	evaluation totals and the king squares in step.
+	*
+	*	@param sq The square index
+	*	@param p The piece to place, or null to empty the square
+	*/
+	void setPiece(int sq, Piece p){
+		Piece old = squares[sq];
+		long bit = 1L << sq;
+		if (old != null){
+			int index = pieceIndex(old.color, old.type);
+			pieces[index] &= ~bit;
+			colors[old.color.ordinal()] &= ~bit;
+			occupied &= ~bit;
+			key ^= Zobrist.piece(index, sq);
+			middlegameScore -= Evaluator.middlegame(index, sq);
+			endgameScore -= Evaluator.endgame(index, sq);
+			phase -= Evaluator.phase(index);
+			if (old.type == Game.PieceType.KING && kingSquares[old.color.ordinal()] == sq)
+				kingSquares[old.color.ordinal()] = -1;
+		}
+		squares[sq] = p;
+		if (p != null){
+			int index = pieceIndex(p.color, p.type);
+			pieces[index] |= bit;
+			colors[p.color.ordinal()] |= bit;
+			occupied |= bit;
+			key ^= Zobrist.piece(index, sq);
+			middlegameScore += Evaluator.middlegame(index, sq);
+			endgameScore += Evaluator.endgame(index, sq);
+			phase += Evaluator.phase(index);
+			if (p.type == Game.PieceType.KING)
+				kingSquares[p.color.ordinal()] = sq;
+		}
+	}
+
+	/**
+	*	@return The color whose turn it is in this position
+	*/
+	public Game.Color getSideToMove(){
+		return sideToMove;
+	}
+
+	/**
+	*	Returns the 64-bit Zobrist key of this position, covering the pieces, the side to move, the castling 
+	*	rights and the en passant square. The en passant square is only hashed when a pawn can capture on it, 
+	*	so equal positions have equal keys whether or not the last move was a double push, and the key can 
+	*	stand in for the board in hash tables, repetition checks and the like.
+	*
+	*	@return The Zobrist key
+	*/
+	public long getKey(){
+		return key;
+	}
+
+	/**
+	*	@return The middlegame score of the position from White's point of view, kept up to date as pieces move
+	*/
+	int getMiddlegameScore(){
+		return middlegameScore;
+	}
+
+	/**
+	*	@return The endgame score of the position from White's point of view, kept up to date as pieces move
+	*/
+	int getEndgameScore(){
+		return endgameScore;
+	}
+
+	/**
+	*	@return How much material is left to attack with, from 0 in a pawn ending up to {@link Evaluator#MAX_PHASE}
+	*/
+	int getPhase(){
+		return phase;
+	}
+
+	/**
+	*	Returns the castling rights still available in this position. A right is lost once the king or
+	*	the rook involved has moved or the rook has been captured; it says nothing about whether castling
+	*	is possible right now.
+	*
+	*	@return A combination of the {@code CASTLE_} bits
+	*/
+	public int getCastlingRights(){
+		return castlingRights;
+	}
+
+	/**
+	*	@return The square a pawn skipped over with a double push on the last move, or -1 if there is none
+	*/
+	public int getEnPassantSquare(){
+		return enPassantSquare;
+	}
+
+	/**
+	*	Returns the en passant square if a pawn of the side to move stands next to the pawn that skipped it, so that 
+	*	the capture is possible (ignoring pins). Otherwise the square makes no difference to the position.
+	*
+	*	@return The en passant square if it can be captured on, or -1
+	*/
+	int capturableEnPassantSquare(){
+		if (enPassantSquare < 0 || (Bitboards.pawnAttacks(Game.getOpposite(sideToMove), enPassantSquare)
+				& pieces[pieceIndex(sideToMove, Game.PieceType.PAWN)]) == 0)
+			return -1;
+		return enPassantSquare;
+	}
+
+	/**
+	*	@return The en passant part of this board's key, which is 0 unless the square can be captured on
+	*/
+	long enPassantKey(){
+		return Zobrist.enPassant(capturableEnPassantSquare());
+	}
+
+	/**
+	*	@return The number of moves since the last capture or pawn move
+	*/
+	public int getHalfmoveClock(){
+		return halfmoveClock;
+	}
+
+	/**
+	*	@return The number of the current full move, starting at 1
+	*/
+	public int getFullmoveNumber(){
+		return fullmoveNumber;
+	}
+
+	/**
+	*	Restores the side to move, castling rights, en passant square, move counters and key of a position. 
+	*	Used by {@link SearchBoard#unmakeMove()} once the pieces themselves have been put back.
+	*/
+	void restoreState(Game.Color side, int castling, int enPassant, int halfmove, int fullmove, long key){
+		this.sideToMove = side;
+		this.castlingRights = castling;
+		this.enPassantSquare = enPassant;
+		this.halfmoveClock = halfmove;
+		this.fullmoveNumber = fullmove;
+		this.key = key;
+	}
+
+	private volatile List<Tile> tileList;
+	/**
+	*	@return A list of this Board's Tile objects 
+	*/
+	public List<Tile> getTileList(){
+		List<Tile> list = tileList;
+		if (list == null) {
+			List<Tile> tiles = new ArrayList<>(64);
+			for (Tile[] row : getBoardState())
+				for (Tile t : row)
+					tiles.add(t);
+			tileList = list = Collections.unmodifiableList(tiles);
+		}
+		return list;
+	}
 
-    /** 
-    *	Returns the Tile object at a certain location, with the bottom left corner of the board 
-    *	defined as (0,0) and the top right defined as (7,7).
-    *	
-    *	@param l The location of the tile to return
-    *	@return The tile at the specified location
-    */
-    public Tile getTile(Location l){
+	/** 
+	*	Returns the Tile object at a certain location, with the bottom left corner of the board 
+	*	defined as (0,0) and the top right defined as (7,7).
+	*	
+	*	@param l The location of the tile to return
+	*	@return The tile at the specified location
+	*/
+	public Tile getTile(Location l){
 		return getTile(l.x, l.y);
 	}
 	
 	/** 
-    *	Returns the Tile object at a certain location, with the bottom left corner of the board 
-    *	defined as (0,0) and the top right defined as (7,7).
-    *	
-    *	@param x x-coordinate of the specified Tile
-    *	@param y y-coordinate of the specified Tile 
-    *	@return The Tile at the specified location
-    */
+	*	Returns the Tile object at a certain location, with the bottom left corner of the board 
+	*	defined as (0,0) and the top right defined as (7,7).
+	*	
+	*	@param x x-coordinate of the specified Tile
+	*	@param y y-coordinate of the specified Tile 
+	*	@return The Tile at the specified location
+	*/
 	public Tile getTile(int x, int y){
-		return state[7-y][x];
+		return getBoardState()[7-y][x];
 	}
 
 	/** 
-    *	Returns a two-dimensional array of Tile objects wherein array[0][0] is the top left corner
-    *	of the board and array[7][7] is the bottom right.
-    *	
-    *	@return The array of Tile objects
-    */
+	*	Returns a two-dimensional array of Tile objects wherein array[0][0] is the top left corner
+	*	of the board and array[7][7] is the bottom right. The Tiles are views over this board's 
+	*	bitboards and are only created the first time they are requested.
+	*	
+	*	@return The array of Tile objects
+	*/
 	public Tile[][] getBoardState(){
-		return state;
+		Tile[][] tiles = state;
+		if (tiles == null){
+			tiles = new Tile[8][8];
+			for (int y = 0; y < 8; ++y)
+				for (int x = 0; x < 8; ++x)
+					tiles[y][x] = new Tile(Location.of(x, 7-y));
+			state = tiles;
+		}
+		return tiles;
 	}
 
 	private String displayDeathRow(Game.Color color){
@@ -188,22 +557,9 @@ public class Board {
 	*	@return Whether the cardinal line of sight between two tiles contains no pieces
 	*/
 	public boolean cardinalLineOfSightClear(Location a, Location b){
-		int xDiff = b.x-a.x;
-		int yDiff = b.y-a.y;
-		
-		// v (vector) = x or y direction | x = false | y = true
-		boolean v;
-		
-		if (yDiff == 0 ^ xDiff == 0) 
-			v = (xDiff==0);
-		else return false;
-
-		int dir = (((v)?b.y:b.x) < ((v)?a.y:a.x))?1:-1;
-		for (int i = ((v)?b.y:b.x)+dir; i != ((v)?a.y:a.x); i += dir){
-			if (getTile((v)?a.x:i, (v)?i:a.y).occupator != null)
-				return false;
-		}
-		return true;
+		if (a.x == b.x ^ a.y == b.y)
+			return (Bitboards.between(square(a), square(b)) & occupied) == 0;
+		return false;
 	}
 
 	/**
@@ -218,20 +574,10 @@ public class Board {
 		int xDiff = b.x-a.x;
 		int yDiff = b.y-a.y;
 
-		// if (xDiff + yDiff == 0) then x and y are of opposite signs, check y = -x diagonal
-		if (yDiff == 0 || xDiff == 0) return false;
-
-		int xDir = (xDiff>0)?-1:1;
-		int yDir = (yDiff>0)?-1:1;
-
-		if (Math.abs(xDiff) != Math.abs(yDiff)) 
+		if (xDiff == 0 || Math.abs(xDiff) != Math.abs(yDiff)) 
 			return false;
 
-		for (int x = b.x+xDir, y = b.y+yDir; x != a.x; x+=xDir, y+=yDir){
-			if (getTile(x, y).occupator != null)
-				return false;
-		}
-		return true;
+		return (Bitboards.between(square(a), square(b)) & occupied) == 0;
 	}
 
 
@@ -243,17 +589,28 @@ public class Board {
 	*	@return The distance from the given location to the king of the given color
 	*/
 	public double getDistanceFromKing(Game.Color color, Location locale){
-		Location kingLoc = null;
-		for (Tile t : getTileList()){
-			if (t.getOccupator()!=null && t.getOccupator().type.equals(Game.PieceType.KING) && t.getOccupator().color.equals(color)){
-				kingLoc = t.getLocale();
-				break;
-			}
-		}
-
-		return getDistanceFromLocation(locale, kingLoc);
+		return getDistanceFromLocation(locale, getKingLocation(color));
 	}	
 
+	/**
+	*	Returns the location of the king of the given color
+	*
+	*	@param color The color of the king
+	*	@return The location of the king, or null if the board holds no such king
+	*/
+	public Location getKingLocation(Game.Color color){
+		int sq = kingSquares[color.ordinal()];
+		return (sq < 0) ? null : Location.of(sq);
+	}
+
+	/**
+	*	@param color The color of the king
+	*	@return The square of the king, or -1 if the board holds no such king
+	*/
+	int kingSquare(Game.Color color){
+		return kingSquares[color.ordinal()];
+	}
+
 	/**
 	*	Returns the net distance from one location to anoter location on the board
 	*	
@@ -262,7 +619,26 @@ public class Board {
 	*	@return The net distance between the two locations
 	*/
 	public double getDistanceFromLocation(Location a, Location b){
-		return Math.sqrt(Math.pow((double)Math.abs(a.x-b.x), 2) + Math.pow((double)Math.abs(a.y-b.y), 2));
+		return distance(square(a), square(b));
+	}
+
+	/** The distance between every pair of squares, indexed by {@code a * 64 + b}. */
+	private static final double[] DISTANCE = new double[64 * 64];
+	static {
+		for (int a = 0; a < 64; ++a)
+			for (int b = 0; b < 64; ++b)
+				DISTANCE[a * 64 + b] = Math.sqrt(Math.pow((double)Math.abs((a & 7) - (b & 7)), 2) + Math.pow((double)Math.abs((a >>> 3) - (b >>> 3)), 2));
+	}
+
+	/**
+	*	Returns the net distance between two squares on the board
+	*
+	*	@param a The first square index
+	*	@param b The second square index
+	*	@return The net distance between the two squares
+	*/
+	static double distance(int a, int b){
+		return DISTANCE[a * 64 + b];
 	}
 
 	/**
@@ -273,9 +649,12 @@ public class Board {
 	public boolean isValidMove(Move move){
 		boolean validMove = false;
 
-		Piece movingPiece = getTile(move.origin).getOccupator();
+		int from = square(move.origin), to = square(move.destination);
+		long toBit = 1L << to;
+
+		Piece movingPiece = pieceAt(from);
 
-		if (movingPiece == null || !getTile(move.destination).available(movingPiece.color) || move.origin.equals(move.destination))
+		if (movingPiece == null || (colors[movingPiece.color.ordinal()] & toBit) != 0 || from == to)
 			return false;
 		
 		int direction = movingPiece.color.equals(Game.Color.WHITE) ? 1 : -1;
@@ -284,23 +663,24 @@ public class Board {
 		int dx = move.destination.x - move.origin.x;
 		int dy = direction * (move.destination.y - move.origin.y);
 
-		boolean enemy = getTile(move.destination).getOccupator() != null;
+		boolean enemy = (occupied & toBit) != 0;
 		
 		switch (movingPiece.type){
 			case PAWN:
-				Piece enpasse = (dy == 1 && (dy + dx == 0 || dy + dx == 2)) ? getTile(move.origin.x+dx, move.origin.y).getOccupator() : null;
+				boolean diagonal = (Bitboards.pawnAttacks(movingPiece.color, from) & toBit) != 0;
+				Piece enpasse = diagonal ? pieceAt(move.origin.x+dx, move.origin.y) : null;
 				move.PROMOTION = (move.destination.y == (movingPiece.color.equals(Game.Color.WHITE) ? 7 : 0));
 				if ((dy == 1 && dx == 0 && !enemy)
-					|| (movingPiece.moves.size()==0 && dy == 2 && dx == 0 && cardinalLineOfSightClear(move.origin, move.destination) && !enemy) 
-					|| (dy == 1 && (dy + dx == 0 || dy + dx == 2) && enemy)){
+					|| (move.origin.y == (movingPiece.color.equals(Game.Color.WHITE) ? 1 : 6) && dy == 2 && dx == 0 && cardinalLineOfSightClear(move.origin, move.destination) && !enemy) 
+					|| (diagonal && enemy)){
 					validMove = true;
 					break;
 				}
 				else if (!enemy &&
+							to == enPassantSquare &&
 							enpasse != null &&
-							getTile(move.origin.x+dx, move.origin.y).available(movingPiece.color) && 
-							enpasse.ofType(movingPiece.type) &&
-							enpasse.moves.size() == 1){
+							!enpasse.color.equals(movingPiece.color) && 
+							enpasse.ofType(movingPiece.type)){
 					move.ENPASSE = true;
 					validMove = true;
 					break;
@@ -309,49 +689,48 @@ public class Board {
 				break;
 			
 			case ROOK:
-				validMove = (cardinalLineOfSightClear(move.origin, move.destination));
+				validMove = (Bitboards.rookAttacks(from, occupied) & toBit) != 0;
 				break;
 
 			case KNIGHT:
-				validMove = (dx != 0 && dy != 0 && Math.abs(dx) + Math.abs(dy) == 3);
+				validMove = (Bitboards.knightAttacks(from) & toBit) != 0;
 				break;
 			
 			case BISHOP:
-				validMove = (diagonalLineOfSightClear(move.origin, move.destination));
+				validMove = (Bitboards.bishopAttacks(from, occupied) & toBit) != 0;
 				break;
 			
 			case QUEEN:
-				validMove = (diagonalLineOfSightClear(move.origin, move.destination))
-						^ (cardinalLineOfSightClear(move.origin, move.destination));
+				validMove = (Bitboards.queenAttacks(from, occupied) & toBit) != 0;
 				break;
 			
 			case KING:	
-				if (movingPiece.moves.isEmpty() && Math.abs(dx) == 2 && dy == 0){
+				if (move.origin.x == 4 && Math.abs(dx) == 2 && dy == 0){
+					boolean white = movingPiece.color.equals(Game.Color.WHITE);
 					if (dx > 0){
-						Piece castleRook = getTile(move.origin.x+3, move.origin.y).getOccupator();
-						if (cardinalLineOfSightClear(move.origin, new Location(move.origin.x+3, move.origin.y)) &&
-						 	castleRook != null && castleRook.type.equals(Game.PieceType.ROOK) && castleRook.moves.isEmpty())
+						Piece castleRook = pieceAt(move.origin.x+3, move.origin.y);
+						if ((castlingRights & (white ? CASTLE_WHITE_KING : CASTLE_BLACK_KING)) != 0 &&
+							cardinalLineOfSightClear(move.origin, Location.of(from + 3)) &&
+						 	castleRook != null && castleRook.type.equals(Game.PieceType.ROOK) && castleRook.color.equals(movingPiece.color))
 							move.KCASTLE = true;
 					}
 					else {
-						Piece castleRook = getTile(move.origin.x-4, move.origin.y).getOccupator();
-						if (cardinalLineOfSightClear(move.origin, new Location(move.origin.x-4, move.origin.y)) &&
-							castleRook != null && castleRook.type.equals(Game.PieceType.ROOK) && castleRook.moves.isEmpty())
+						Piece castleRook = pieceAt(move.origin.x-4, move.origin.y);
+						if ((castlingRights & (white ? CASTLE_WHITE_QUEEN : CASTLE_BLACK_QUEEN)) != 0 &&
+							cardinalLineOfSightClear(move.origin, Location.of(from - 4)) &&
+							castleRook != null && castleRook.type.equals(Game.PieceType.ROOK) && castleRook.color.equals(movingPiece.color))
 							move.QCASTLE = true;
 					}
-					validMove = true;
+					validMove = move.KCASTLE || move.QCASTLE;
 					break;
 				}
-				validMove = (Math.abs(dx) <= 1 && Math.abs(dy) <= 1);
+				validMove = (Bitboards.kingAttacks(from) & toBit) != 0;
 				break;
 		}
 
 
-		if (validMove && enemy){
-			Piece enemyPiece = getTile(move.destination).getOccupator();
-			move.materialValue = enemyPiece.value;
-			enemyPiece.attackingMove = move;
-		}
+		if (validMove && enemy)
+			move.materialValue = pieceAt(to).value;
 
 		return validMove;
 	}
@@ -363,22 +742,51 @@ public class Board {
 	*	@return The list of moves
 	*/
 	public List<Move> calculateValidMoves(Game.Color color){
-		List<Move> moves = new ArrayList<>();
-		for (Tile t : getTileList()){
-            if (!t.available(color)){
-            	for (int i = 0; i < 8; ++i){
-            		for (int j = 0; j < 8; ++j){
-            			Move m = new Move(t.getLocale(), new Location(i, j), this);
-            			if (isValidMove(m)){
-            				moves.add(m);
-            			}
-            		}
-            	}
-            }
+		MoveList codes = new MoveList();
+		MoveGenerator.generate(this, color, codes);
+
+		List<Move> moves = new ArrayList<>(codes.size());
+		for (int i = 0; i < codes.size(); ++i){
+			int code = codes.get(i);
+			// Moves handed out as objects always promote to a queen
+			if (Move.isPromotion(code) && Move.promotionType(code) != Game.PieceType.QUEEN)
+				continue;
+			moves.add(new Move(this, code));
 		}
 		return moves;
 	}
 
+	/**
+	*	Writes the codes of all valid (pseudo-legal) moves of a given color to a list, promotions to 
+	*	every piece included. Unlike {@link #calculateValidMoves(Game.Color)}, no Move objects are created.
+	*
+	*	@param color The color to gather moves for
+	*	@param moves The list to clear and fill with move codes
+	*/
+	public void generateValidMoves(Game.Color color, MoveList moves){
+		moves.clear();
+		MoveGenerator.generate(this, color, moves);
+	}
+
+	/**
+	*	Writes the codes of all legal moves of a given color to a list, promotions to every piece included. 
+	*	Unlike {@link #calculateLegalMoves(Game.Color)}, no Move objects are created.
+	*
+	*	@param color The color to gather moves for
+	*	@param moves The list to clear and fill with move codes
+	*/
+	public void generateLegalMoves(Game.Color color, MoveList moves){
+		generateValidMoves(color, moves);
+		LegalityFilter filter = new LegalityFilter(color);
+		int legal = 0;
+		for (int i = 0; i < moves.size(); ++i){
+			int code = moves.get(i);
+			if (filter.test(code))
+				moves.set(legal++, code);
+		}
+		moves.truncate(legal);
+	}
+
 	/**
 	*	Returns the list of valid moves for a given color if this method has been called before. 
 	*	Otherwise, it will generate the list and return it. 
@@ -387,12 +795,13 @@ public class Board {
 	*	@return The list of moves
 	*/
 	public List<Move> getValidMoves(Game.Color color){
+		List<Move> moves;
 		if (color.equals(Game.Color.BLACK)){
-			if (validBlackMoves == null) validBlackMoves = calculateValidMoves(color);
-			return validBlackMoves;
+			if ((moves = validBlackMoves) == null) validBlackMoves = moves = calculateValidMoves(color);
+			return moves;
 		}
-		if (validWhiteMoves == null) validWhiteMoves = calculateValidMoves(color);
-		return validWhiteMoves;
+		if ((moves = validWhiteMoves) == null) validWhiteMoves = moves = calculateValidMoves(color);
+		return moves;
 	}
 
 	/**
@@ -403,13 +812,8 @@ public class Board {
 	*	@return Whether the player has check 	
 	*/
 	public static boolean playerHasCheck(Board board, Game.Color c){
-		Piece p;
-		for (Move m : board.getValidMoves(c)){
-			p = board.getTile(m.destination).getOccupator();
-			if (p != null && p.ofType(Game.PieceType.KING))
-				return true;
-		}
-		return false;
+		int king = board.kingSquare(Game.getOpposite(c));
+		return king >= 0 && board.isSquareAttacked(king, c);
 	}
 
 	public static boolean playerHasCheck(Board board, Player player){
@@ -417,27 +821,263 @@ public class Board {
 	}
 
 	/**
-	*	Computes a list of all legal moves for all pieces of a given color
+	*	Returns whether a square is attacked by any piece of a given color.
+	*
+	*	@param sq The square index (0 for a1 through 63 for h8)
+	*	@param byColor The color of the attacking pieces
+	*	@return Whether a piece of that color attacks the square
+	*/
+	public boolean isSquareAttacked(int sq, Game.Color byColor){
+		return (attackersTo(sq, occupied) & colors[byColor.ordinal()]) != 0;
+	}
+
+	/**
+	*	Returns whether a square is attacked by any piece of a given color.
+	*
+	*	@param l The location of the square
+	*	@param byColor The color of the attacking pieces
+	*	@return Whether a piece of that color attacks the square
+	*/
+	public boolean isSquareAttacked(Location l, Game.Color byColor){
+		return isSquareAttacked(square(l), byColor);
+	}
+
+	/**
+	*	Returns every piece, of either color, attacking a square on a board with the given occupancy.
+	*	Sliders are traced through the supplied occupancy rather than the board's own, which lets a 
+	*	caller ask what would attack a square once some pieces have moved away.
+	*
+	*	@param sq The square index
+	*	@param occupancy The occupancy to trace sliders through
+	*	@return A bitboard of the attacking pieces
+	*/
+	long attackersTo(int sq, long occupancy){
+		int w = Game.Color.WHITE.ordinal() * 6, b = Game.Color.BLACK.ordinal() * 6;
+		long rooks = pieces[w + 1] | pieces[w + 4] | pieces[b + 1] | pieces[b + 4];
+		long bishops = pieces[w + 3] | pieces[w + 4] | pieces[b + 3] | pieces[b + 4];
+		return (Bitboards.pawnAttacks(Game.Color.BLACK, sq) & pieces[w])
+			| (Bitboards.pawnAttacks(Game.Color.WHITE, sq) & pieces[b])
+			| (Bitboards.knightAttacks(sq) & (pieces[w + 2] | pieces[b + 2]))
+			| (Bitboards.kingAttacks(sq) & (pieces[w + 5] | pieces[b + 5]))
+			| (Bitboards.rookAttacks(sq, occupancy) & rooks)
+			| (Bitboards.bishopAttacks(sq, occupancy) & bishops);
+	}
+
+	/** Piece types from the least valuable to the most, by type ordinal, for finding the cheapest attacker. */
+	private static final int[] CHEAPEST_FIRST = {0, 2, 3, 1, 4, 5};
+
+	/** The most captures an exchange can take, one per piece on the board. */
+	static final int MAX_EXCHANGE = 32;
+
+	/**
+	*	Resolves the exchange a move starts on its target square without making any move (static exchange
+	*	evaluation). Both sides keep recapturing with their least valuable attacker, sliders behind a capturing
+	*	piece joining in as it leaves, and either side stops as soon as recapturing would lose material.
+	*	Pins are not taken into account.
+	*
+	*	@param move The code of the move (see {@link Move})
+	*	@return The material the moving side wins, or loses if negative, in units of {@link Piece#value}
+	*/
+	double staticExchange(int move){
+		return staticExchange(move, new double[MAX_EXCHANGE]);
+	}
+
+	/**
+	*	Resolves an exchange as {@link #staticExchange(int)} does, working in a given array so that searches 
+	*	calling it for every capture need not allocate one each time.
+	*
+	*	@param move The code of the move
+	*	@param gain An array of at least {@link #MAX_EXCHANGE} elements to work in; its contents are overwritten
+	*	@return The material the moving side wins, or loses if negative, in units of {@link Piece#value}
+	*/
+	double staticExchange(int move, double[] gain){
+		int from = Move.from(move), to = Move.to(move), flags = Move.flags(move);
+		Piece attacker = squares[from];
+
+		gain[0] = 0;
+		long occupancy = occupied ^ (1L << from);
+		if (flags == Move.EN_PASSANT){
+			gain[0] = attacker.value;
+			occupancy ^= 1L << (to + (attacker.color.equals(Game.Color.WHITE) ? -8 : 8));
+		}
+		else if (squares[to] != null)
+			gain[0] = squares[to].value;
+
+		double onSquare = attacker.value;
+		if (Move.isPromotion(move)){
+			onSquare = Piece.of(attacker.color, Move.promotionType(move)).value;
+			gain[0] += onSquare - attacker.value;
+		}
+
+		int side = Game.getOpposite(attacker.color).ordinal(), d = 0;
+		long attackers = attackersTo(to, occupancy) & occupancy;
+		while (d < MAX_EXCHANGE - 1){
+			long own = attackers & colors[side];
+			if (own == 0)
+				break;
+
+			long bit = 0;
+			for (int t : CHEAPEST_FIRST){
+				if ((bit = own & pieces[side * 6 + t]) != 0)
+					break;
+			}
+
+			++d;
+			gain[d] = onSquare - gain[d - 1];
+			if (Math.max(-gain[d - 1], gain[d]) < 0)
+				break;
+
+			occupancy ^= Long.lowestOneBit(bit);
+			attackers = attackersTo(to, occupancy) & occupancy;
+			onSquare = squares[Long.numberOfTrailingZeros(bit)].value;
+			side ^= 1;
+		}
+
+		for (; d > 0; --d)
+			gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+		return gain[0];
+	}
+
+	/**
+	*	Returns the pieces of a given color that are pinned to their own king by an enemy slider.
+	*
+	*	@param c The color of the king
+	*	@param king The square of the king
+	*	@return A bitboard of the pinned pieces
+	*/
+	private long pinnedPieces(Game.Color c, int king){
+		int e = Game.getOpposite(c).ordinal() * 6;
+		long snipers = (Bitboards.rookAttacks(king, 0) & (pieces[e + 1] | pieces[e + 4]))
+					| (Bitboards.bishopAttacks(king, 0) & (pieces[e + 3] | pieces[e + 4]));
+		long pinned = 0;
+		for (; snipers != 0; snipers &= snipers - 1){
+			long blockers = Bitboards.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+			if (Long.bitCount(blockers) == 1)
+				pinned |= blockers & colors[c.ordinal()];
+		}
+		return pinned;
+	}
+
+	/**
+	*	Computes a list of all legal moves for all pieces of a given color. The checks against the 
+	*	king and the pieces pinned to it are worked out once, so no move has to be performed to test it.
 	* 
 	*	@param c The color to gather moves for
 	*	@return The list of moves
 	*/
 	public List<Move> calculateLegalMoves(Game.Color c){
-		List<Move> validMoves = getValidMoves(c);
+		return filterLegal(c, false);
+	}
+
+	/**
+	*	Determines whether a given color has at least one legal move. Unless the legal moves of that 
+	*	color have already been computed, this stops at the first legal move it finds.
+	*
+	*	@param c The color to check for
+	*	@return Whether the color has any legal move
+	*/
+	public boolean hasAnyLegalMove(Game.Color c){
+		List<Move> legal = c.equals(Game.Color.BLACK) ? legalBlackMoves : legalWhiteMoves;
+		if (legal != null)
+			return !legal.isEmpty();
+		return !filterLegal(c, true).isEmpty();
+	}
+
+	/**
+	*	Determines whether the king of a given color is attacked.
+	*
+	*	@param c The color of the king
+	*	@return Whether that color is in check
+	*/
+	public boolean isInCheck(Game.Color c){
+		int king = kingSquare(c);
+		return king >= 0 && isSquareAttacked(king, Game.getOpposite(c));
+	}
+
+	/**
+	*	Determines whether a single move is legal, without computing the rest of the legal moves.
+	*
+	*	@param move The move to check
+	*	@return Whether the move is valid and does not leave the mover's king in check
+	*/
+	public boolean isLegalMove(Move move){
+		Piece movingPiece = pieceAt(square(move.origin));
+		if (movingPiece == null || !getValidMoves(movingPiece.color).contains(move))
+			return false;
+		return new LegalityFilter(movingPiece.color).test(move);
+	}
+
+	private List<Move> filterLegal(Game.Color c, boolean firstOnly){
 		List<Move> legalMoves = new ArrayList<>();
+		LegalityFilter filter = new LegalityFilter(c);
 
-		for (Move m : validMoves){
-			if (!Board.playerHasCheck(performMove(m), Game.getOpposite(c))) {
+		for (Move m : getValidMoves(c)){
+			if (filter.test(m)) {
 				legalMoves.add(m);
-			}
-			else if (m.materialValue > 0) {
-				getTile(m.destination).getOccupator().attackingMove = null;
+				if (firstOnly)
+					break;
 			}
 		}
 
 		return legalMoves;
 	}
 
+	/**
+	*	The checks against one color's king and the pieces pinned to it, worked out once for the position.
+	*	A move of any other piece is legal exactly when it lands inside the check evasion mask (anywhere 
+	*	when not in check, on the checker or between it and the king when in single check, nowhere when
+	*	in double check) and, if the piece is pinned, stays on the line of its pin. King moves, castling 
+	*	and en passant captures are tested individually.
+	*/
+	private class LegalityFilter {
+		private Game.Color enemy;
+		private long enemies, kingBit, checkers, evasions, pinned;
+		private int king;
+
+		LegalityFilter(Game.Color c){
+			enemy = Game.getOpposite(c);
+			enemies = colors[enemy.ordinal()];
+			kingBit = pieces[pieceIndex(c, Game.PieceType.KING)];
+			if (kingBit == 0)
+				return;
+
+			king = Long.numberOfTrailingZeros(kingBit);
+			checkers = attackersTo(king, occupied) & enemies;
+			evasions = (checkers == 0) ? ~0L 
+					: (Long.bitCount(checkers) == 1) ? checkers | Bitboards.between(king, Long.numberOfTrailingZeros(checkers)) 
+					: 0L;
+			pinned = pinnedPieces(c, king);
+		}
+
+		boolean test(Move m){
+			return test(m.getCode());
+		}
+
+		boolean test(int code){
+			if (kingBit == 0)
+				return true;
+
+			int from = Move.from(code), to = Move.to(code), flags = Move.flags(code);
+
+			if (from == king){
+				if (flags == Move.KING_CASTLE || flags == Move.QUEEN_CASTLE){
+					int step = (to > from) ? 1 : -1;
+					return checkers == 0 && !isSquareAttacked(from + step, enemy) && !isSquareAttacked(to, enemy);
+				}
+				return (attackersTo(to, occupied ^ kingBit) & enemies) == 0;
+			}
+
+			if (flags == Move.EN_PASSANT){
+				int passed = (from & ~7) | (to & 7);
+				long after = (occupied ^ (1L << from) ^ (1L << passed)) | (1L << to);
+				return (attackersTo(king, after) & enemies & ~(1L << passed)) == 0;
+			}
+
+			return ((1L << to) & evasions) != 0 
+				&& ((pinned & (1L << from)) == 0 || (Bitboards.line(king, from) & (1L << to)) != 0);
+		}
+	}
+
 	/**
 	*	Returns the list of legal moves for a given color if this method has been called before. 
 	*	Otherwise, it will generate the list and return it. 
@@ -446,12 +1086,29 @@ public class Board {
 	*	@return The list of moves
 	*/
 	public List<Move> getLegalMoves(Game.Color color){
+		List<Move> moves;
 		if (color.equals(Game.Color.BLACK)){
-			if (legalBlackMoves == null) legalBlackMoves = calculateLegalMoves(color);
-			return legalBlackMoves;
+			if ((moves = legalBlackMoves) == null) legalBlackMoves = moves = calculateLegalMoves(color);
+			return moves;
 		}
-		if (legalWhiteMoves == null) legalWhiteMoves = calculateLegalMoves(color);
-		return legalWhiteMoves;
+		if ((moves = legalWhiteMoves) == null) legalWhiteMoves = moves = calculateLegalMoves(color);
+		return moves;
+	}
+
+	/**
+	*	Returns a legal move capturing the piece on a given square, if its opponent has one.
+	*
+	*	@param l The location of the piece
+	*	@return A legal move capturing the piece, or null if the square is empty or the piece is not under attack
+	*/
+	public Move getAttackingMove(Location l){
+		Piece p = pieceAt(square(l));
+		if (p == null)
+			return null;
+		for (Move m : getLegalMoves(Game.getOpposite(p.color)))
+			if (m.destination.equals(l))
+				return m;
+		return null;
 	}
 
 	/**
@@ -501,35 +1158,135 @@ public class Board {
 	*	@return The new board resulting from the move
 	*/
 	public Board performMove(Move move){
+		return performMove(move.getCode());
+	}
+
+	/**
+	*	Performs a move given by its code on a copy of this board (see {@link #performMove(Move)}).
+	*	
+	*	@param move The code of the move to perform
+	*	@return The new board resulting from the move
+	*/
+	Board performMove(int move){
 
 		Board result = new Board(this);
 
-		result.moveOccupator(move.origin, move.destination);
-		if (move.ENPASSE)
-			result.getTile(move.origin.x+(move.destination.x - move.origin.x), move.origin.y).setOccupator(null);
-		else if (move.KCASTLE)
-			result.moveOccupator(new Location(move.origin.x+3, move.origin.y), new Location(move.origin.x+1, move.origin.y));
-		else if (move.QCASTLE)
-			result.moveOccupator(new Location(move.origin.x-4, move.origin.y), new Location(move.origin.x-1, move.origin.y));
-		else if (move.PROMOTION)
-			result.getTile(move.destination).getOccupator().type = Game.PieceType.QUEEN;
+		Piece captured = pieceAt(Move.to(move));
+
+		result.applyMove(move);
 
-		if (move.materialValue > 0)
-			result.addToDeathRow(this.getTile(move.destination).getOccupator());
+		if (captured != null)
+			result.addToDeathRow(captured);
 
 		return result;
 	}
 
-	private void moveOccupator(Location a, Location b){
-		getTile(b).setOccupator(getTile(a).getOccupator());
+	/**
+	*	Performs a given move on this board in place, including any additional actions associated 
+	*	with a special move type. Only ever called on a board that is still being built (see 
+	*	{@link #performMove(Move)}) or on a {@link SearchBoard}.
+	*	
+	*	@param move The code of the move to perform
+	*/
+	void applyMove(int move){
+		int from = Move.from(move), to = Move.to(move), flags = Move.flags(move);
+		Piece movingPiece = pieceAt(from);
+
+		key ^= enPassantKey() ^ Zobrist.castling(castlingRights);
+		enPassantSquare = (flags == Move.DOUBLE_PUSH) ? (from + to) / 2 : -1;
+		castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+		key ^= Zobrist.castling(castlingRights);
+
+		halfmoveClock = (movingPiece.ofType(Game.PieceType.PAWN) || squares[to] != null) ? 0 : halfmoveClock + 1;
+		if (movingPiece.color.equals(Game.Color.BLACK))
+			++fullmoveNumber;
+
+		Game.Color next = Game.getOpposite(movingPiece.color);
+		if (!next.equals(sideToMove)){
+			sideToMove = next;
+			key ^= Zobrist.side();
+		}
+
+		moveOccupator(from, to);
+		if (flags == Move.EN_PASSANT)
+			setPiece((from & ~7) | (to & 7), null);
+		else if (flags == Move.KING_CASTLE)
+			moveOccupator(from + 3, from + 1);
+		else if (flags == Move.QUEEN_CASTLE)
+			moveOccupator(from - 4, from - 1);
+		else if (Move.isPromotion(move))
+			promote(to, Move.promotionType(move));
+
+		if (enPassantSquare >= 0)
+			key ^= enPassantKey();
+	}
+
+	/**
+	*	Drops the cached move lists. Called whenever the position of a {@link SearchBoard} changes or a piece is 
+	*	set through {@link Tile#setOccupator(Piece)}. Mostly none are cached, so the volatile fields are only 
+	*	written when there is something to drop.
+	*/
+	void clearMoveCache(){
+		if (legalWhiteMoves != null || legalBlackMoves != null || validWhiteMoves != null || validBlackMoves != null){
+			legalWhiteMoves = legalBlackMoves = null;
+			validWhiteMoves = validBlackMoves = null;
+		}
+	}
+
+	private void moveOccupator(int from, int to){
+		Piece p = pieceAt(from);
 
-		getTile(a).getOccupator().moves.add(b);
+		setPiece(from, null);
+		setPiece(to, p);
+	}
 
-		getTile(a).setOccupator(null);
+	/** Replaces the piece on a square with the piece of the same color and the given type. */
+	void promote(int sq, Game.PieceType type){
+		setPiece(sq, Piece.of(pieceAt(sq).color, type));
 	}
 
 	public void addToDeathRow(Piece p){
-		deathRow.add(p);
+		deathRowKey ^= Zobrist.captured(pieceIndex(p.color, p.type), deathRow.size());
+		deathRow.add(Piece.of(p.color, p.type));
+	}
+
+	/**
+	*	@return The pieces captured on the way to this board, in the order they were captured, as a read-only list
+	*/
+	public List<Piece> getDeathRow(){
+		return Collections.unmodifiableList(deathRow);
+	}
+
+	/**
+	*	@return A key of the death row: boards whose death rows hold the same pieces in the same order have equal keys
+	*/
+	long getDeathRowKey(){
+		return deathRowKey;
+	}
+
+	/**
+	*	Compares positions by value: two boards are equal when they hold the same pieces on the same 
+	*	squares with the same side to move, castling rights and en passant square, where the en passant 
+	*	square only counts if it can be captured on. The move counters and the death row are not part of 
+	*	the position.
+	*/
+	@Override
+	public boolean equals(Object o){
+		if (this == o)
+			return true;
+		if (!(o instanceof Board))
+			return false;
+		Board other = (Board)o;
+		return key == other.key
+			&& sideToMove == other.sideToMove
+			&& castlingRights == other.castlingRights
+			&& capturableEnPassantSquare() == other.capturableEnPassantSquare()
+			&& Arrays.equals(pieces, other.pieces);
+	}
+
+	@Override
+	public int hashCode(){
+		return (int)(key ^ (key >>> 32));
 	}
 
 	/**
@@ -547,24 +1304,21 @@ public class Board {
 		System.out.println(getBoardString(one, two));
 	}
 
+	/**
+	*	A view of one square of the Board. Tiles hold no piece of their own; reading or setting 
+	*	the occupator of a Tile reads or updates the bitboards of the Board it belongs to.
+	*/
 	public class Tile {
-		private Piece occupator = null;
 		private Location locale;
+		private int square;
 		public Game.Color color;
 
 		public Tile(Location loc){
 			locale = loc;
-			occupator = null;
+			square = Board.square(loc);
 			color = ((loc.x+loc.y)%2==0)?Game.Color.BLACK:Game.Color.WHITE;
 		}
 
-		public Tile(Tile org){
-			this.locale = org.locale;
-			if (org.occupator != null)
-				this.setOccupator(new Piece(org.occupator));
-			this.color = org.color;
-		}
-
 		/**
 		*	@return The location of this Tile
 		*/
@@ -576,7 +1330,7 @@ public class Board {
 		*	@return The occupator of this Tile
 		*/
 		public Piece getOccupator(){
-			return occupator;
+			return pieceAt(square);
 		}
 
 		/**
@@ -588,7 +1342,7 @@ public class Board {
 		*	@return Whether a piece of the given color can move to this tile.
 		*/
 		public boolean available(Game.Color c){
-			return (occupator == null || !occupator.color.equals(c));
+			return (colors[c.ordinal()] & (1L << square)) == 0;
 		}
 
 
@@ -598,7 +1352,8 @@ public class Board {
 		*	@param p The piece to use as the new occupator
 		*/
 		public void setOccupator(Piece p){
-			occupator = p;
+			setPiece(square, p == null ? null : Piece.of(p.color, p.type));
+			clearMoveCache();
 		}
 
 		/**
@@ -607,6 +1362,7 @@ public class Board {
 		*/
 		@Override
 		public String toString(){
+			Piece occupator = getOccupator();
 			return " "+(((occupator!=null)?occupator.getSymbol():(color.equals(Game.Color.BLACK))?"\u00B7":" "))+" ";
 		}
 	}
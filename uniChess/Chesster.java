@@ -4,8 +4,10 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Random;
-
-import java.lang.Thread;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 
 /**
@@ -14,6 +16,9 @@ import java.lang.Thread;
 public class Chesster <T> extends Player <T>{
     public enum StrategyType {LOG, LINEAR, EXP2, EXP4, EXP10}
 
+    /** The search the bot chooses its moves with: the strategy threads, or an alpha-beta search */
+    public enum EngineType {STRATEGY, ALPHA_BETA}
+
     private Game game;
 
     /** Determines amount of layers to calculate */
@@ -25,6 +30,38 @@ public class Chesster <T> extends Player <T>{
     public StrategyType STRATEGY = StrategyType.EXP4;
     public boolean dynamic=true;
 
+    /** Determines which search chooses the bot's moves */
+    public EngineType ENGINE = EngineType.STRATEGY;
+
+    /** Determines amount of plies the alpha-beta search looks ahead */
+    public int SEARCH_DEPTH = 6;
+
+    /** Determines whether the alpha-beta search prunes positions where even passing would be good enough */
+    public boolean NULL_MOVE_PRUNING = true;
+
+    /** Determines whether the alpha-beta search looks less deep at quiet moves ordered late */
+    public boolean LATE_MOVE_REDUCTIONS = true;
+
+    /** Determines how many more moves the bot expects to play when dividing up its remaining clock time */
+    public int MOVES_TO_GO = 30;
+
+    /** Determines the time in milliseconds kept back on the clock for communication overhead */
+    public long MOVE_OVERHEAD = 50;
+
+    private SearchResult lastResult;
+
+    private volatile AlphaBetaSearch currentSearch;
+
+    /** Determines the size in megabytes of the transposition table shared by all alpha-beta search threads */
+    public int HASH_SIZE_MB = 16;
+
+    private TranspositionTable transpositionTable;
+
+    /** Determines the number of threads the root moves are searched on, or the alpha-beta search runs on */
+    public int THREADS = Runtime.getRuntime().availableProcessors();
+
+    private ForkJoinPool searchPool;
+
     public Chesster(T id, Game.Color c){
         super(id, c);
     }
@@ -37,17 +74,68 @@ public class Chesster <T> extends Player <T>{
         return this.game;
     }
 
+    /**
+    *   Returns the transposition table shared by this bot's alpha-beta search threads, (re)allocating it 
+    *   if HASH_SIZE_MB has changed since it was created.
+    *
+    *   @return the transposition table
+    */
+    public TranspositionTable getTranspositionTable(){
+        if (transpositionTable == null || transpositionTable.getSizeMB() != HASH_SIZE_MB)
+            transpositionTable = new TranspositionTable(HASH_SIZE_MB);
+        return transpositionTable;
+    }
+
+    /**
+    *   Returns the pool this bot's root moves are searched on, (re)creating it 
+    *   if THREADS has changed since it was created.
+    *
+    *   @return the search pool
+    */
+    public ForkJoinPool getSearchPool(){
+        int threads = Math.max(1, THREADS);
+        if (searchPool == null || searchPool.getParallelism() != threads){
+            if (searchPool != null)
+                searchPool.shutdown();
+            searchPool = new ForkJoinPool(threads);
+        }
+        return searchPool;
+    }
+
     long sysTime;
     long avgThreadTime=0;
     int threads;
 
+    /**
+    *   Returns the result of the last alpha-beta search, including its score and principal variation.
+    *
+    *   @return the last search result, or null if the alpha-beta search has not been used yet
+    */
+    public SearchResult getLastSearchResult(){
+        return lastResult;
+    }
+
+    /**
+    *   Returns the principal variation of the last alpha-beta search, the line of play expected to follow 
+    *   the move getMove returned, starting with that move.
+    *
+    *   @return the principal variation, or an empty list if the alpha-beta search has not been used yet
+    */
+    public List<Move> getPrincipalVariation(){
+        return (lastResult == null) ? Collections.<Move>emptyList() : lastResult.getPrincipalVariation();
+    }
+
     /**
     *   Returns the best possible legal move for the bot based on individual 
-    *   tactics and strategy (logarithmic sum of average tactical value of future moves).
+    *   tactics and strategy (logarithmic sum of average tactical value of future moves),
+    *   or on an alpha-beta search if ENGINE is set to ALPHA_BETA.
     *
     *   @return the best move
     */
     public Move getMove(){
+        if (ENGINE == EngineType.ALPHA_BETA)
+            return getAlphaBetaMove();
+
         SmartMove.MATERIAL_WEIGHT = this.MATERIAL_WEIGHT;
         if (Board.playerHasCheck(game.getCurrentBoard(), game.getDormantPlayer()))
             STRATEGY = StrategyType.LOG;
@@ -67,31 +155,53 @@ public class Chesster <T> extends Player <T>{
         sysTime = System.currentTimeMillis();
 
         List<StrategyProcessorThread> threadPool = new ArrayList<>();
+        List<Future<?>> results = new ArrayList<>();
 
-        for (SmartMove sm : smartMoves)
-            threadPool.add(new StrategyProcessorThread(sm, this));
-        
+        ForkJoinPool pool = getSearchPool();
+        for (SmartMove sm : smartMoves){
+            StrategyProcessorThread t = new StrategyProcessorThread(sm, this);
+            threadPool.add(t);
+            results.add(pool.submit(t));
+        }
 
-        for (int i = 0; i < smartMoves.size(); ++i){
-            threadPool.get(i).start();
-            printProgress(i, smartMoves.size(), threadPool.get(i).sm.toString());
+        for (int i = 0; i < results.size(); ++i){
             try{
-                threadPool.get(i).join();
-            } catch (Exception e) {}
+                results.get(i).get();
+            } catch (InterruptedException e) {
+                // Stop the root moves still being searched, and choose among those that finished
+                Thread.currentThread().interrupt();
+                smartMoves = new ArrayList<>();
+                for (int j = 0; j < results.size(); ++j){
+                    Future<?> result = results.get(j);
+                    if (!result.isDone()){
+                        threadPool.get(j).stop();
+                        result.cancel(false);
+                    }
+                    else if (!result.isCancelled())
+                        smartMoves.add(threadPool.get(j).sm);
+                }
+                if (smartMoves.isEmpty())
+                    throw new RuntimeException("Interrupted before any root move was searched", e);
+                break;
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+            printProgress(i, smartMoves.size(), threadPool.get(i).sm.toString());
         }
 
         Collections.sort(smartMoves);
         long processTime = (System.currentTimeMillis() - sysTime);
         
-        int treesize = 0;
+        int treesize = 0, transpositions = 0;
         for (StrategyProcessorThread t : threadPool){
             treesize += t.treesize;
+            transpositions += t.transpositions;
             avgThreadTime += t.runTime;
             ++threads;
         }
 
         System.out.format("\n# Time : %sms | Avg Move Process Time: %sms\n", processTime, (avgThreadTime / threads));
-        System.out.format("# Total Sub Move Tree Size: %s | Avg Sub Move Process Time: %sms\n\n", treesize, (processTime / treesize));
+        System.out.format("# Total Sub Move Tree Size: %s | Transpositions: %s | Avg Sub Move Process Time: %sms\n\n", treesize, transpositions, (processTime / Math.max(1, treesize)));
 
 
         // if (smartMoves.get(smartMoves.size()-1).strategicValue == smartMoves.get(smartMoves.size()-2).strategicValue)
@@ -108,6 +218,73 @@ public class Chesster <T> extends Player <T>{
     }
 
 
+    /**
+    *   Returns the best legal move found by an alpha-beta search within a time budget. The search deepens 
+    *   one ply at a time, up to SEARCH_DEPTH plies if SEARCH_DEPTH is positive, and the move is taken from the 
+    *   last iteration completed before the budget ran out. Timed moves always use the alpha-beta search, 
+    *   whatever ENGINE is set to, since the strategy threads can not be cut short.
+    *
+    *   @param budget the time to think for
+    *   @return the best move
+    */
+    public Move getMove(Duration budget){
+        return search(SEARCH_DEPTH > 0 ? SEARCH_DEPTH : AlphaBetaSearch.MAX_PLY, Math.max(1, budget.toMillis()));
+    }
+
+    /**
+    *   Returns the best legal move found by an alpha-beta search, budgeting the time to think for from the 
+    *   bot's clock: an even share of the remaining time over MOVES_TO_GO moves plus most of the increment, 
+    *   never more than the remaining time less MOVE_OVERHEAD.
+    *
+    *   @param remaining the time left on the bot's clock
+    *   @param increment the time added to the clock after each move
+    *   @return the best move
+    */
+    public Move getMove(Duration remaining, Duration increment){
+        long left = remaining.toMillis(), inc = increment.toMillis();
+        long budget = left / Math.max(1, MOVES_TO_GO) + inc * 3 / 4;
+        budget = Math.min(budget, left - MOVE_OVERHEAD);
+        return getMove(Duration.ofMillis(Math.max(1, budget)));
+    }
+
+    /**
+    *   Asks a running alpha-beta search to stop. The search returns the best move of its last completed 
+    *   iteration as soon as it notices, so getMove returns promptly on its own thread.
+    */
+    public void stopSearch(){
+        AlphaBetaSearch search = currentSearch;
+        if (search != null)
+            search.stop();
+    }
+
+    /**
+    *   Returns the best legal move found by an alpha-beta search SEARCH_DEPTH plies deep.
+    *
+    *   @return the best move
+    */
+    private Move getAlphaBetaMove(){
+        return search(SEARCH_DEPTH, 0);
+    }
+
+    private Move search(int depth, long millis){
+        TranspositionTable table = getTranspositionTable();
+        table.newSearch();
+
+        currentSearch = new AlphaBetaSearch(game.getCurrentBoard(), table);
+        currentSearch.setHistory(game.getRepetitionKeys());
+        currentSearch.setNullMovePruning(NULL_MOVE_PRUNING);
+        currentSearch.setLateMoveReductions(LATE_MOVE_REDUCTIONS);
+        currentSearch.setThreads(Math.max(1, THREADS), getSearchPool());
+        try{
+            lastResult = currentSearch.search(depth, millis);
+        } finally {
+            currentSearch = null;
+        }
+
+        System.out.format("# %s\n\n", lastResult);
+        return lastResult.getBestMove();
+    }
+
     public void printProgress(int prog, int total, String sm){
         double percent = (double)prog/total;
         double percentFrom20 = 20 * percent;
@@ -146,7 +323,7 @@ class SmartMove extends Move implements Comparable<SmartMove>{
         public double getDistanceToTarget(Location location){
             if (!this.movingPiece.type.equals(Game.PieceType.KING))
                 return this.board.getDistanceFromKing(Game.getOpposite(this.movingPiece.color), location);
-            else return this.board.getDistanceFromLocation(location, (this.movingPiece.color.equals(Game.Color.WHITE) ? new Location(4,0) : new Location(4,7)));
+            else return this.board.getDistanceFromLocation(location, (this.movingPiece.color.equals(Game.Color.WHITE) ? Location.of(4,0) : Location.of(4,7)));
         }
 
         public double calculateStrategicValue(){
@@ -0,0 +1,198 @@
+package uniChess;
+
+/**
+*	Static evaluation of positions: material plus piece-square scores, tapered between a middlegame and an
+*	endgame score by the material left on the board.
+*	<p>
+*	Every term is a value per piece per square, so a Board keeps running totals of the middlegame score, the
+*	endgame score and the game phase, adding and subtracting a piece's values whenever it is placed on or removed
+*	from a square, exactly as it keeps its Zobrist key (see {@link Zobrist}). Evaluating a position then only
+*	blends the two totals, and no move ever has to look at the whole board.
+*	<p>
+*	Material is based on {@link Piece#value} (a pawn is worth 100). The piece-square tables reward central
+*	minor pieces, advanced pawns and a sheltered king while there is material to attack it with, and an active,
+*	central king and passed-pawn races once there is not.
+*/
+public final class Evaluator {
+
+	/** The phase of a board with all pieces but pawns and kings on it */
+	public static final int MAX_PHASE = 24;
+
+	/** How much each piece type, by type ordinal, counts towards the middlegame phase */
+	private static final int[] PHASE = {0, 2, 1, 1, 4, 0};
+
+	// Tables are laid out as seen from White, rank 8 on the first row, and mirrored for Black.
+
+	private static final int[] PAWN_MG = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 50,  50,  50,  50,  50,  50,  50,  50,
+		 10,  10,  20,  30,  30,  20,  10,  10,
+		  5,   5,  10,  25,  25,  10,   5,   5,
+		  0,   0,   0,  20,  20,   0,   0,   0,
+		  5,  -5, -10,   0,   0, -10,  -5,   5,
+		  5,  10,  10, -20, -20,  10,  10,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0
+	};
+
+	private static final int[] PAWN_EG = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 90,  90,  90,  90,  90,  90,  90,  90,
+		 60,  60,  60,  60,  60,  60,  60,  60,
+		 35,  35,  35,  35,  35,  35,  35,  35,
+		 20,  20,  20,  20,  20,  20,  20,  20,
+		 10,  10,  10,  10,  10,  10,  10,  10,
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  0,   0,   0,   0,   0,   0,   0,   0
+	};
+
+	private static final int[] KNIGHT = {
+		-50, -40, -30, -30, -30, -30, -40, -50,
+		-40, -20,   0,   0,   0,   0, -20, -40,
+		-30,   0,  10,  15,  15,  10,   0, -30,
+		-30,   5,  15,  20,  20,  15,   5, -30,
+		-30,   0,  15,  20,  20,  15,   0, -30,
+		-30,   5,  10,  15,  15,  10,   5, -30,
+		-40, -20,   0,   5,   5,   0, -20, -40,
+		-50, -40, -30, -30, -30, -30, -40, -50
+	};
+
+	private static final int[] BISHOP = {
+		-20, -10, -10, -10, -10, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,  10,  10,   5,   0, -10,
+		-10,   5,   5,  10,  10,   5,   5, -10,
+		-10,   0,  10,  10,  10,  10,   0, -10,
+		-10,  10,  10,  10,  10,  10,  10, -10,
+		-10,   5,   0,   0,   0,   0,   5, -10,
+		-20, -10, -10, -10, -10, -10, -10, -20
+	};
+
+	private static final int[] ROOK = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  5,  10,  10,  10,  10,  10,  10,   5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		  0,   0,   0,   5,   5,   0,   0,   0
+	};
+
+	private static final int[] QUEEN = {
+		-20, -10, -10,  -5,  -5, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,   5,   5,   5,   0, -10,
+		 -5,   0,   5,   5,   5,   5,   0,  -5,
+		  0,   0,   5,   5,   5,   5,   0,  -5,
+		-10,   5,   5,   5,   5,   5,   0, -10,
+		-10,   0,   5,   0,   0,   0,   0, -10,
+		-20, -10, -10,  -5,  -5, -10, -10, -20
+	};
+
+	private static final int[] KING_MG = {
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-20, -30, -30, -40, -40, -30, -30, -20,
+		-10, -20, -20, -20, -20, -20, -20, -10,
+		 20,  20,   0,   0,   0,   0,  20,  20,
+		 20,  30,  10,   0,   0,  10,  30,  20
+	};
+
+	private static final int[] KING_EG = {
+		-50, -40, -30, -20, -20, -30, -40, -50,
+		-30, -20, -10,   0,   0, -10, -20, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -30,   0,   0,   0,   0, -30, -30,
+		-50, -30, -30, -30, -30, -30, -30, -50
+	};
+
+	/** Middlegame and endgame tables by type ordinal: pawn, rook, knight, bishop, queen, king */
+	private static final int[][] TABLES_MG = {PAWN_MG, ROOK, KNIGHT, BISHOP, QUEEN, KING_MG};
+	private static final int[][] TABLES_EG = {PAWN_EG, ROOK, KNIGHT, BISHOP, QUEEN, KING_EG};
+
+	/** The material and square value of each piece on each square, positive for White and negative for Black */
+	private static final int[][] MG = new int[12][64];
+	private static final int[][] EG = new int[12][64];
+
+	static {
+		for (Game.Color c : Game.Color.values()){
+			int sign = c.equals(Game.Color.WHITE) ? 1 : -1;
+			for (Game.PieceType t : Game.PieceType.values()){
+				int index = Board.pieceIndex(c, t), type = t.ordinal();
+				int material = t.equals(Game.PieceType.KING) ? 0 : (int)Math.round(Piece.of(c, t).value * 50);
+				for (int sq = 0; sq < 64; ++sq){
+					int row = c.equals(Game.Color.WHITE) ? 7 - (sq >>> 3) : (sq >>> 3);
+					int entry = (row << 3) | (sq & 7);
+					MG[index][sq] = sign * (material + TABLES_MG[type][entry]);
+					EG[index][sq] = sign * (material + TABLES_EG[type][entry]);
+				}
+			}
+		}
+	}
+
+	private Evaluator(){}
+
+	/**
+	*	@param pieceIndex The bitboard index of the piece (see {@link Board#getBitboard(Game.Color, Game.PieceType)})
+	*	@param sq The square index
+	*	@return The middlegame value of the piece standing on the square, from White's point of view
+	*/
+	static int middlegame(int pieceIndex, int sq){
+		return MG[pieceIndex][sq];
+	}
+
+	/**
+	*	@param pieceIndex The bitboard index of the piece
+	*	@param sq The square index
+	*	@return The endgame value of the piece standing on the square, from White's point of view
+	*/
+	static int endgame(int pieceIndex, int sq){
+		return EG[pieceIndex][sq];
+	}
+
+	/**
+	*	@param pieceIndex The bitboard index of the piece
+	*	@return How much the piece counts towards the middlegame phase
+	*/
+	static int phase(int pieceIndex){
+		return PHASE[pieceIndex % 6];
+	}
+
+	/**
+	*	Evaluates a position from its running totals, blending the middlegame and endgame scores by how much
+	*	material is left.
+	*
+	*	@param board The board to evaluate
+	*	@return The score in centipawns, from the point of view of the side to move
+	*/
+	public static int evaluate(Board board){
+		int phase = Math.min(board.getPhase(), MAX_PHASE);
+		int score = (board.getMiddlegameScore() * phase + board.getEndgameScore() * (MAX_PHASE - phase)) / MAX_PHASE;
+		return board.getSideToMove().equals(Game.Color.WHITE) ? score : -score;
+	}
+
+	/**
+	*	Computes the middlegame score, endgame score and phase of a board from scratch. Boards maintain their
+	*	own totals incrementally; this is only needed to check those totals.
+	*
+	*	@param board The board to score
+	*	@return The middlegame score, endgame score and phase, in that order
+	*/
+	public static int[] compute(Board board){
+		int[] res = new int[3];
+		for (Game.Color c : Game.Color.values())
+			for (Game.PieceType t : Game.PieceType.values())
+				for (long bb = board.getBitboard(c, t); bb != 0; bb &= bb - 1){
+					int index = Board.pieceIndex(c, t), sq = Long.numberOfTrailingZeros(bb);
+					res[0] += MG[index][sq];
+					res[1] += EG[index][sq];
+					res[2] += PHASE[t.ordinal()];
+				}
+		return res;
+	}
+}
@@ -1,7 +1,9 @@
 package uniChess;
 
 import java.util.List;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
 *	An object for creating, maintaining, and communicating with a chess game.
@@ -28,7 +30,28 @@ public class Game {
 
 	private String gameString = "";
 
-	private List<Board> boards = new ArrayList<>();
+	/** The number of plies between two snapshots of the game history, unless set otherwise. */
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 32;
+
+	/** The codes of the moves made so far, in order. */
+	private MoveList moves = new MoveList(128);
+
+	/** Copies of the board taken every {@link #snapshotInterval} moves, keyed by their index in the board list. */
+	private TreeMap<Integer, Board> snapshots = new TreeMap<>();
+
+	/** 
+	*	Boards that did not come from a move (the starting board and boards set with {@link #setcurrentBoard(Board)}), 
+	*	keyed by their index in the board list. Every other board of the list follows a move.
+	*/
+	private TreeMap<Integer, Board> origins = new TreeMap<>();
+
+	/** The board of a past index most recently rebuilt by {@link #getBoard(int)}, and its index, or -1. */
+	private Board rebuilt;
+	private int rebuiltIndex = -1;
+
+	private int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+
+	private Board currentBoard;
 
 	private Player white, black;
 	
@@ -65,8 +88,7 @@ public class Game {
 		if (black instanceof Chesster)
 			((Chesster)black).registerGame(this);
 
-		boards.add(new Board());
-		getCurrentBoard().processLegal();
+		setcurrentBoard(new Board());
 	}
 
 	/**
@@ -82,12 +104,91 @@ public class Game {
 	}
 
 	/**
-	*	Returns a List of all generated boards in the game. 
+	*	Returns a List of all boards in the game: the starting board, the board after every move, and every 
+	*	board set with {@link #setcurrentBoard(Board)}. The game only stores its moves and a snapshot of the 
+	*	board every few moves (see {@link #setSnapshotInterval(int)}), so past boards are rebuilt on demand 
+	*	(see {@link #getBoard(int)}).
 	*
-	*	@return The list of boards.
+	*	@return An unmodifiable view of the list of boards.
 	*/
 	public List<Board> getBoardList(){
-		return boards;
+		return new AbstractList<Board>(){
+			@Override
+			public Board get(int index){
+				return getBoard(index);
+			}
+
+			@Override
+			public int size(){
+				return boardCount();
+			}
+		};
+	}
+
+	/**
+	*	Returns a board of the game. The current board, the starting board and boards set with 
+	*	{@link #setcurrentBoard(Board)} are the game's own. Any other past board is rebuilt from the 
+	*	nearest earlier snapshot; the last one rebuilt is kept, so asking for the same index again returns 
+	*	the same board, but the next rebuild returns a fresh copy. Changing a rebuilt board never changes 
+	*	the game's history.
+	*
+	*	@param index The index of the board in the list of boards, 0 for the first board of the game
+	*	@return The board at that index.
+	*/
+	public Board getBoard(int index){
+		int count = boardCount();
+		if (index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("Board "+index+" of a game with "+count+" boards");
+		if (index == count - 1)
+			return currentBoard;
+		if (index == rebuiltIndex)
+			return rebuilt;
+
+		Map.Entry<Integer, Board> start = origins.floorEntry(index);
+		if (start.getKey() == index)
+			return start.getValue();
+		Map.Entry<Integer, Board> snapshot = snapshots.floorEntry(index);
+		if (snapshot != null && snapshot.getKey() > start.getKey())
+			start = snapshot;
+
+		Board board = new Board(start.getValue());
+		for (int i = movesBefore(start.getKey()); i < movesBefore(index); ++i)
+			replay(board, moves.get(i));
+
+		rebuilt = board;
+		rebuiltIndex = index;
+		return board;
+	}
+
+	/**
+	*	Returns the keys of the positions played before the current board that it could repeat: those since the 
+	*	last capture or pawn move, and since the last board set with {@link #setcurrentBoard(Board)}.
+	*
+	*	@return The Zobrist keys of those positions, oldest first
+	*/
+	public long[] getRepetitionKeys(){
+		int current = boardCount() - 1;
+		int start = Math.max(origins.floorKey(current), current - currentBoard.getHalfmoveClock());
+		long[] keys = new long[current - start];
+		if (keys.length == 0)
+			return keys;
+
+		Board board = new Board(getBoard(start));
+		int made = movesBefore(start);
+		keys[0] = board.getKey();
+		for (int i = 1; i < keys.length; ++i)
+			keys[i] = replay(board, moves.get(made++)).getKey();
+		return keys;
+	}
+
+	/** @return The number of boards in the game: one per origin and one per move */
+	private int boardCount(){
+		return origins.size() + moves.size();
+	}
+
+	/** @return The number of moves made before the board at a given index of the board list */
+	private int movesBefore(int index){
+		return index + 1 - origins.headMap(index, true).size();
 	}
 
 	/**
@@ -96,7 +197,8 @@ public class Game {
 	*	@param board The board to be used.
 	*/
 	public void setcurrentBoard(Board board){
-		boards.add(board);
+		origins.put(boardCount(), board);
+		currentBoard = board;
 	}
 
 	/**
@@ -105,7 +207,47 @@ public class Game {
 	*	@return The current board.
 	*/
 	public Board getCurrentBoard(){
-		return boards.get(boards.size()-1);
+		return currentBoard;
+	}
+
+	/**
+	*	@return The number of plies between two snapshots of the game history
+	*/
+	public int getSnapshotInterval(){
+		return snapshotInterval;
+	}
+
+	/**
+	*	Sets how often the game keeps a copy of the board. Past boards are rebuilt by replaying at most 
+	*	this many moves from a snapshot, and a game holds one snapshot per this many moves.
+	*
+	*	@param interval The number of moves between two snapshots
+	*/
+	public void setSnapshotInterval(int interval){
+		if (interval < 1)
+			throw new IllegalArgumentException("Snapshot interval must be positive: "+interval);
+		snapshotInterval = interval;
+		snapshots.clear();
+
+		Board board = null;
+		for (int index = 0, made = 0; index < boardCount() - 1; ++index){
+			if (origins.containsKey(index)){
+				board = new Board(origins.get(index));
+				continue;
+			}
+			replay(board, moves.get(made++));
+			if (made % interval == 0)
+				snapshots.put(index, new Board(board));
+		}
+	}
+
+	/** Performs a recorded move on a board in place, as {@link Board#performMove(Move)} would on a copy. */
+	private static Board replay(Board board, int move){
+		Piece captured = board.pieceAt(Move.to(move));
+		board.applyMove(move);
+		if (captured != null)
+			board.addToDeathRow(captured);
+		return board;
 	}
 
 	/**
@@ -175,25 +317,29 @@ public class Game {
 
 			Move move = Move.parseMove(getCurrentBoard(), getCurrentPlayer().color, in);
 			
-			List<Move> legal = getCurrentBoard().getLegalMoves(getCurrentPlayer());
-			
-			if (!legal.contains(move))
+			if (!getCurrentBoard().isLegalMove(move))
 				return GameEvent.ILLEGAL;
 
-			boards.add(move.getSimulation());
-			getCurrentBoard().processLegal();
+			currentBoard = getCurrentBoard().performMove(move);
+			moves.add(move.getCode());
+			if (moves.size() % snapshotInterval == 0)
+				snapshots.put(boardCount() - 1, new Board(currentBoard));
 
 			whiteMove = !whiteMove;
 
 			gameString += move.getANString()+",";
 
-			if (Board.playerHasCheck(getCurrentBoard(), getDormantPlayer()) && getCurrentBoard().getLegalMoves(getCurrentPlayer()).isEmpty())
+			// Legal moves are only generated for the player to move, and only until the first one is found
+			boolean check = getCurrentBoard().isInCheck(getCurrentPlayer().color);
+			boolean canMove = getCurrentBoard().hasAnyLegalMove(getCurrentPlayer().color);
+
+			if (check && !canMove)
 				return GameEvent.CHECKMATE;
 
-			else if (getCurrentBoard().getLegalMoves(getCurrentPlayer()).isEmpty()) // This is a stalemate, which results in Draw
+			else if (!canMove) // This is a stalemate, which results in Draw
 				return GameEvent.DRAW;
 
-			else if (Board.playerHasCheck(getCurrentBoard(), getDormantPlayer()))
+			else if (check)
 				return GameEvent.CHECK;
 
 
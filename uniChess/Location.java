@@ -2,38 +2,118 @@ package uniChess;
 
 /**
 *	An object representing a point in a two dimensional grid. This is used for the internal coordinate system of the
-*	Board, as well as parsing algebraic locations to integer format. 
+*	Board, as well as parsing algebraic locations to integer format.
+*	<p>
+*	Locations are immutable. There is one canonical instance for each of the 64 squares, returned by
+*	{@link #of(int, int)}, {@link #of(int)} and {@link #of(String)}, so board and move code never needs to allocate one.
 */
-public class Location {
-	public int x, y;
+public final class Location {
+	public final int x, y;
 
+	private static final Location[] SQUARES = new Location[64];
+	static {
+		for (int sq = 0; sq < 64; ++sq)
+			SQUARES[sq] = new Location(sq);
+	}
+
+	/** Creates the canonical Location of a square index. */
+	private Location(int sq){
+		this.x = sq & 7;
+		this.y = sq >>> 3;
+	}
+
+	/**
+	*	Creates a copy of the Location of a square. Copies are equal to the canonical instance but are not it.
+	*
+	*	@param x x-coordinate of the square
+	*	@param y y-coordinate of the square
+	*	@throws IllegalArgumentException If the coordinates are not on the board
+	*	@deprecated Use {@link #of(int, int)}, which returns the canonical instance instead of allocating a copy.
+	*/
+	@Deprecated
 	public Location(int x, int y){
-		this.x = x;
-		this.y = y;
+		this(of(x, y).getSquare());
 	}
 
+	/**
+	*	Creates a copy of the Location of an algebraic square such as "e4".
+	*
+	*	@param in The algebraic notation of the square
+	*	@throws GameException If the string does not start with a square
+	*	@deprecated Use {@link #of(String)}, which returns the canonical instance instead of allocating a copy.
+	*/
+	@Deprecated
 	public Location(String in) throws GameException {
-		try {
-			in = in.toLowerCase();
-			final String col = "abcdefgh";
-			final String row = "12345678";
-			this.x = col.indexOf(in.charAt(0));
-			this.y = row.indexOf(in.charAt(1));
-
-			if (x<0 || y<0) throw new IndexOutOfBoundsException("ayylmao");
-		} catch (IndexOutOfBoundsException e){
-			throw new GameException(GameException.INVALID_MOVE, "Could not parse location from '"+in+"'");
+		this(of(in).getSquare());
+	}
+
+	/**
+	*	Returns the canonical Location of a square.
+	*
+	*	@param x x-coordinate of the square
+	*	@param y y-coordinate of the square
+	*	@return The Location of the square
+	*	@throws IllegalArgumentException If the coordinates are not on the board
+	*/
+	public static Location of(int x, int y){
+		if (((x | y) & ~7) != 0)
+			throw new IllegalArgumentException("Square ("+x+", "+y+") is not on the board");
+		return SQUARES[(y << 3) | x];
+	}
+
+	/**
+	*	Returns the canonical Location of a square index (0 for a1 through 63 for h8).
+	*
+	*	@param sq The square index
+	*	@return The Location of the square
+	*	@throws IllegalArgumentException If the index is not that of a square
+	*/
+	public static Location of(int sq){
+		if ((sq & ~63) != 0)
+			throw new IllegalArgumentException("Square index "+sq+" is not on the board");
+		return SQUARES[sq];
+	}
+
+	/**
+	*	Returns the canonical Location of an algebraic square such as "e4".
+	*
+	*	@param in The algebraic notation of the square
+	*	@return The Location of the square
+	*	@throws GameException If the string does not start with a square
+	*/
+	public static Location of(String in) throws GameException {
+		if (in.length() >= 2){
+			int x = Character.toLowerCase(in.charAt(0)) - 'a';
+			int y = in.charAt(1) - '1';
+			if (x >= 0 && x < 8 && y >= 0 && y < 8)
+				return SQUARES[(y << 3) | x];
 		}
+		throw new GameException(GameException.INVALID_MOVE, "Could not parse location from '"+in.toLowerCase()+"'");
+	}
+
+	/**
+	*	@return The square index of this Location (0 for a1 through 63 for h8)
+	*/
+	public int getSquare(){
+		return (y << 3) | x;
 	}
 
 	public boolean equals(Location l){
 		return (x == l.x && y == l.y);
 	}
 
+	@Override
+	public boolean equals(Object o){
+		return (o instanceof Location) && equals((Location)o);
+	}
+
+	@Override
+	public int hashCode(){
+		return (y << 3) | x;
+	}
+
 	@Override
 	public String toString(){
-		final String col = "abcdefgh";
-		final String row = "12345678";
-		return String.format("%c%c",col.charAt(x),row.charAt(y));
+		return String.valueOf(new char[]{(char)('a' + x), (char)('1' + y)});
 	}
-}
\ No newline at end of file
+}
@@ -5,8 +5,20 @@ import java.util.ArrayList;
 
 /**
 *	An object representing a replacement of one Tile in a Board object with another.
+*	<p>
+*	Inside move generation and search, moves are not Move objects but ints packing the origin square 
+*	(bits 0-5), the destination square (bits 6-11) and four flag bits (12-15): the {@code CAPTURE} bit, the 
+*	{@code PROMOTION} bit with the promoted piece in the two low flag bits, or one of the special codes 
+*	{@code DOUBLE_PUSH}, {@code KING_CASTLE}, {@code QUEEN_CASTLE} and {@code EN_PASSANT}. Move objects are 
+*	only created from these codes when moves are handed out through the public API.
 */
 public class Move{
+	/** Move code flags */
+	public static final int QUIET = 0, DOUBLE_PUSH = 1, KING_CASTLE = 2, QUEEN_CASTLE = 3, CAPTURE = 4, EN_PASSANT = 5, PROMOTION_FLAG = 8;
+
+	/** The piece types a pawn can promote to, indexed by the two low flag bits of a promotion */
+	private static final Game.PieceType[] PROMOTIONS = {Game.PieceType.KNIGHT, Game.PieceType.BISHOP, Game.PieceType.ROOK, Game.PieceType.QUEEN};
+
     /**	Boolean flag for special move type.*/
 	public boolean ENPASSE, QCASTLE, KCASTLE, PROMOTION, CHECKMATE;
 
@@ -16,7 +28,10 @@ public class Move{
 	/**	Location of Tile to move piece to*/
 	public Location destination;
 	
-	public Board board, sim = null;
+	public Board board;
+
+	/** The cache shared by every Move for the boards returned by {@link #getSimulation()} */
+	private static final SimulationCache SIMULATIONS = new SimulationCache(SimulationCache.DEFAULT_CAPACITY);
 
 	public Piece movingPiece;
 
@@ -28,7 +43,24 @@ public class Move{
 		origin = a;
 		destination = b;
 		board = bo;
-		movingPiece = bo.getTile(origin).getOccupator();
+		movingPiece = bo.pieceAt(Board.square(origin));
+	}
+
+	/**
+	*	Creates a Move from a move code generated on a given board.
+	*
+	*	@param bo The board the move is to be executed on
+	*	@param code The move code
+	*/
+	public Move(Board bo, int code){
+		this(Location.of(from(code)), Location.of(to(code)), bo);
+		int flags = flags(code);
+		ENPASSE = (flags == EN_PASSANT);
+		KCASTLE = (flags == KING_CASTLE);
+		QCASTLE = (flags == QUEEN_CASTLE);
+		PROMOTION = isPromotion(code);
+		if (isCapture(code) && !ENPASSE)
+			materialValue = bo.pieceAt(to(code)).value;
 	}
 
 	public Move(Move m){
@@ -40,14 +72,115 @@ public class Move{
 		this.origin = m.origin;
 		this.destination = m.destination;
 		this.board = m.board;
-		this.sim = (m.sim!=null) ? m.sim : null;
 		this.movingPiece = m.movingPiece;
 		this.materialValue = m.materialValue;
 	}
 
+	/**
+	*	Returns the board resulting from this move. Results are kept in a bounded cache shared by all 
+	*	moves (see {@link #getSimulationCache()}) rather than by the move itself, so the board returned is 
+	*	shared with every equal move on an equal board and must not be changed.
+	*
+	*	@return The board after this move
+	*/
 	public Board getSimulation(){
-		if (sim == null) sim = this.board.performMove(this);
-		return sim;
+		return SIMULATIONS.getSimulation(this);
+	}
+
+	/**
+	*	@return The cache holding the boards returned by {@link #getSimulation()}
+	*/
+	public static SimulationCache getSimulationCache(){
+		return SIMULATIONS;
+	}
+
+	/**
+	*	Returns the code of this move, promoting to a queen if it is a promotion.
+	*
+	*	@return The move code
+	*/
+	public int getCode(){
+		int from = Board.square(origin), to = Board.square(destination);
+		int flags = KCASTLE ? KING_CASTLE : QCASTLE ? QUEEN_CASTLE : ENPASSE ? EN_PASSANT : QUIET;
+		if (PROMOTION)
+			flags = PROMOTION_FLAG | 3;
+		else if (flags == QUIET && movingPiece != null && movingPiece.ofType(Game.PieceType.PAWN) && Math.abs(to - from) == 16)
+			flags = DOUBLE_PUSH;
+		if (materialValue > 0)
+			flags |= CAPTURE;
+		return encode(from, to, flags);
+	}
+
+	/**
+	*	@param from The origin square
+	*	@param to The destination square
+	*	@param flags The move flags
+	*	@return The move code
+	*/
+	public static int encode(int from, int to, int flags){
+		return from | (to << 6) | (flags << 12);
+	}
+
+	/**
+	*	@param code A move code
+	*	@return The origin square of the move
+	*/
+	public static int from(int code){
+		return code & 0x3F;
+	}
+
+	/**
+	*	@param code A move code
+	*	@return The destination square of the move
+	*/
+	public static int to(int code){
+		return (code >>> 6) & 0x3F;
+	}
+
+	/**
+	*	@param code A move code
+	*	@return The four flag bits of the move
+	*/
+	public static int flags(int code){
+		return (code >>> 12) & 0xF;
+	}
+
+	/**
+	*	@param code A move code
+	*	@return Whether the move captures a piece, en passant included
+	*/
+	public static boolean isCapture(int code){
+		return (code & (CAPTURE << 12)) != 0;
+	}
+
+	/**
+	*	@param code A move code
+	*	@return Whether the move promotes a pawn
+	*/
+	public static boolean isPromotion(int code){
+		return (code & (PROMOTION_FLAG << 12)) != 0;
+	}
+
+	/**
+	*	@param code A move code of a promotion
+	*	@return The piece type the pawn is promoted to
+	*/
+	public static Game.PieceType promotionType(int code){
+		return PROMOTIONS[(code >>> 12) & 3];
+	}
+
+	/**
+	*	Returns a move code in coordinate notation: the origin and destination squares, followed by the 
+	*	piece promoted to if any (e.g. "e2e4", "e7e8q").
+	*
+	*	@param code A move code
+	*	@return The coordinate notation of the move
+	*/
+	public static String getCoordinateString(int code){
+		String res = Location.of(from(code)).toString() + Location.of(to(code));
+		if (isPromotion(code))
+			res += "nbrq".charAt((code >>> 12) & 3);
+		return res;
 	}
 
 	public boolean isSpecial(){
@@ -63,6 +196,11 @@ public class Move{
 		return false;
 	}
 
+	@Override
+	public int hashCode(){
+		return Board.square(origin) * 64 + Board.square(destination);
+	}
+
 	/**
 	*	Creates a Move instance from a valid Algebraic Noation string. 
 	*
@@ -115,37 +253,28 @@ public class Move{
 
 		Location dest;
 		try {
-			dest = new Location(tokens[tokens.length-2]+tokens[tokens.length-1]);
+			dest = Location.of(tokens[tokens.length-2]+tokens[tokens.length-1]);
 		} catch(ArrayIndexOutOfBoundsException e){
 			throw new GameException(GameException.INVALID_MOVE, "Invalid move.");
 		}
 	// System.out.format("pieceSymbol: %s\ndest: %s\n", pieceSymbol, dest);
 
-		List<Board.Tile> potentialLocations = new ArrayList<>();
+		List<Move> potentialMoves = new ArrayList<>();
 
-		for (Board.Tile t : board.getTileList()){
-			
-			Piece p = t.getOccupator();
-
-			if (p == null || !p.color.equals(color))
+		for (Move m : board.getValidMoves(color)){
+			if (!m.destination.equals(dest) || !m.movingPiece.ofType(pieceSymbol))
 				continue;
-			
-			if (p.ofType(pieceSymbol) && board.isValidMove(new Move(t.getLocale(), dest, board))){
-				if (((rank < 0 ^ t.getLocale().y == rank)) && ((file < 0 ^ t.getLocale().x == file))) // if the rank or file have been specified, add only matching pieces
-					potentialLocations.add(t);
-			}
+			if (((rank < 0 ^ m.origin.y == rank)) && ((file < 0 ^ m.origin.x == file))) // if the rank or file have been specified, add only matching pieces
+				potentialMoves.add(m);
 		}
 
-		if (potentialLocations.size() == 1){
-			Move m = new Move(potentialLocations.get(0).getLocale(), dest, board);
-			board.isValidMove(m); // adds special move flags
-			return m;
-		}
+		if (potentialMoves.size() == 1)
+			return new Move(potentialMoves.get(0));
 
-		if (potentialLocations.size() < 1)
+		if (potentialMoves.size() < 1)
 			throw new GameException(GameException.INVALID_MOVE, "Invalid move.");
 
-		if (potentialLocations.size() > 1){
+		if (potentialMoves.size() > 1){
 			throw new GameException(GameException.AMBIGUOUS_MOVE, "yep");
 		}
 		return null;
@@ -0,0 +1,124 @@
+package uniChess;
+
+/**
+*	Generates the valid (pseudo-legal) moves of one color on a Board. Rather than testing every piece against all
+*	64 destination squares, each piece only visits the squares it can actually reach: attack table lookups for
+*	knights, kings and sliders, and single pushes, double pushes, captures and en passant for pawns. Castling is
+*	generated alongside the king's regular moves. Castling and en passant are taken from the board's castling
+*	rights and en passant square.
+*	<p>
+*	Moves are written as move codes (see {@link Move}) to a {@link MoveList}, carrying the same special move flags
+*	that {@link Board#isValidMove(Move)} would assign to them. Promotions are generated once for each piece a pawn
+*	can promote to.
+*/
+final class MoveGenerator {
+
+	private MoveGenerator(){}
+
+	/**
+	*	Adds every valid move of the given color on the given board to a list.
+	*
+	*	@param board The board to generate moves for
+	*	@param color The color to generate moves for
+	*	@param moves The list to add the move codes to
+	*/
+	static void generate(Board board, Game.Color color, MoveList moves){
+		long own = board.getOccupancy(color);
+		long occupied = board.getOccupancy();
+
+		for (long bb = own; bb != 0; bb &= bb - 1){
+			int from = Long.numberOfTrailingZeros(bb);
+			Piece piece = board.pieceAt(from);
+			long targets;
+
+			switch (piece.type){
+				case PAWN:
+					generatePawnMoves(board, piece, from, moves);
+					continue;
+				case KNIGHT:
+					targets = Bitboards.knightAttacks(from);
+					break;
+				case BISHOP:
+					targets = Bitboards.bishopAttacks(from, occupied);
+					break;
+				case ROOK:
+					targets = Bitboards.rookAttacks(from, occupied);
+					break;
+				case QUEEN:
+					targets = Bitboards.queenAttacks(from, occupied);
+					break;
+				default:
+					targets = Bitboards.kingAttacks(from);
+					generateCastling(board, piece, from, moves);
+					break;
+			}
+
+			for (targets &= ~own; targets != 0; targets &= targets - 1){
+				int to = Long.numberOfTrailingZeros(targets);
+				moves.add(Move.encode(from, to, ((occupied & (1L << to)) != 0) ? Move.CAPTURE : Move.QUIET));
+			}
+		}
+	}
+
+	private static void generatePawnMoves(Board board, Piece pawn, int from, MoveList moves){
+		long occupied = board.getOccupancy();
+		long enemy = board.getOccupancy(Game.getOpposite(pawn.color));
+		int forward = pawn.color.equals(Game.Color.WHITE) ? 8 : -8;
+
+		int single = from + forward;
+		if ((occupied & (1L << single)) == 0){
+			addPawnMove(pawn.color, from, single, Move.QUIET, moves);
+
+			int twice = single + forward;
+			if ((from >>> 3) == (pawn.color.equals(Game.Color.WHITE) ? 1 : 6) && (occupied & (1L << twice)) == 0)
+				moves.add(Move.encode(from, twice, Move.DOUBLE_PUSH));
+		}
+
+		long attacks = Bitboards.pawnAttacks(pawn.color, from);
+		for (long captures = attacks & enemy; captures != 0; captures &= captures - 1){
+			int to = Long.numberOfTrailingZeros(captures);
+			addPawnMove(pawn.color, from, to, Move.CAPTURE, moves);
+		}
+
+		// En passant: the square an enemy pawn has just skipped over with a double push
+		int ep = board.enPassantSquare;
+		if (ep >= 0 && (attacks & ~occupied & (1L << ep)) != 0){
+			Piece passed = board.pieceAt(ep - forward);
+			if (passed != null && passed.ofType(Game.PieceType.PAWN) && !passed.color.equals(pawn.color))
+				moves.add(Move.encode(from, ep, Move.EN_PASSANT));
+		}
+	}
+
+	private static void generateCastling(Board board, Piece king, int from, MoveList moves){
+		boolean white = king.color.equals(Game.Color.WHITE);
+		int rights = board.castlingRights & (white ? Board.CASTLE_WHITE_KING | Board.CASTLE_WHITE_QUEEN : Board.CASTLE_BLACK_KING | Board.CASTLE_BLACK_QUEEN);
+		if (rights == 0 || (from & 7) != 4)
+			return;
+
+		long occupied = board.getOccupancy();
+
+		Piece rook = board.pieceAt(from + 3);
+		if ((rights & (Board.CASTLE_WHITE_KING | Board.CASTLE_BLACK_KING)) != 0 && rook != null && rook.ofType(Game.PieceType.ROOK) 
+				&& rook.color.equals(king.color) && (Bitboards.between(from, from + 3) & occupied) == 0)
+			moves.add(Move.encode(from, from + 2, Move.KING_CASTLE));
+
+		rook = board.pieceAt(from - 4);
+		if ((rights & (Board.CASTLE_WHITE_QUEEN | Board.CASTLE_BLACK_QUEEN)) != 0 && rook != null && rook.ofType(Game.PieceType.ROOK) 
+				&& rook.color.equals(king.color) && (Bitboards.between(from, from - 4) & occupied) == 0)
+			moves.add(Move.encode(from, from - 2, Move.QUEEN_CASTLE));
+	}
+
+	private static boolean isLastRank(Game.Color color, int sq){
+		return (sq >>> 3) == (color.equals(Game.Color.WHITE) ? 7 : 0);
+	}
+
+	/** Adds a pawn push or capture, or one move per promotion piece (queen first) if it reaches the last rank. */
+	private static void addPawnMove(Game.Color color, int from, int to, int flags, MoveList moves){
+		if (!isLastRank(color, to)){
+			moves.add(Move.encode(from, to, flags));
+			return;
+		}
+		for (int piece = 3; piece >= 0; --piece)
+			moves.add(Move.encode(from, to, flags | Move.PROMOTION_FLAG | piece));
+	}
+}
@@ -0,0 +1,79 @@
+package uniChess;
+
+import java.util.Arrays;
+
+/**
+*	A growable list of move codes (see {@link Move}) backed by a plain {@code int[]}. A search keeps one list per
+*	ply and clears it instead of allocating a new one, so generating moves inside the search allocates nothing.
+*/
+public class MoveList {
+
+	private int[] moves;
+	private int size;
+
+	public MoveList(){
+		this(256);
+	}
+
+	/**
+	*	@param capacity The number of moves the list can hold before it has to grow
+	*/
+	public MoveList(int capacity){
+		moves = new int[Math.max(1, capacity)];
+	}
+
+	/**
+	*	@return The number of moves in the list
+	*/
+	public int size(){
+		return size;
+	}
+
+	/**
+	*	@return Whether the list holds no moves
+	*/
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+	/**
+	*	@param index The index of the move
+	*	@return The move code at the given index
+	*/
+	public int get(int index){
+		return moves[index];
+	}
+
+	/**
+	*	@param index The index of the move
+	*	@param move The move code to store at the given index
+	*/
+	public void set(int index, int move){
+		moves[index] = move;
+	}
+
+	/**
+	*	@param move The move code to append
+	*/
+	public void add(int move){
+		if (size == moves.length)
+			moves = Arrays.copyOf(moves, size * 2);
+		moves[size++] = move;
+	}
+
+	/**
+	*	Drops every move after the first {@code size}, keeping the backing array.
+	*
+	*	@param size The number of moves to keep
+	*/
+	public void truncate(int size){
+		this.size = size;
+	}
+
+	/**
+	*	Empties the list, keeping the backing array.
+	*/
+	public void clear(){
+		size = 0;
+	}
+}
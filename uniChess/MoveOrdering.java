@@ -0,0 +1,151 @@
+package uniChess;
+
+/**
+*	Orders the moves of an {@link AlphaBetaSearch} so the moves most likely to cause a cutoff are tried first,
+*	which is what lets alpha-beta prune most of the tree.
+*	<p>
+*	Moves are tried in this order: the move stored in the transposition table for the position, captures and
+*	promotions by most valuable victim and then least valuable attacker (MVV-LVA, using {@link Piece#value}),
+*	the two killer moves of the ply (quiet moves that caused a cutoff in a sibling position), the remaining quiet
+*	moves by their history score (how often and how deep they have caused cutoffs anywhere in the search), and
+*	finally underpromotions.
+*	<p>
+*	Every move of a list is scored once, but the list is not sorted: {@link #next(MoveList, int, int)} selects
+*	the best remaining move each time it is called, since a cutoff usually comes long before the last move.
+*/
+public class MoveOrdering {
+
+	private static final int TT_MOVE = 2000000000;
+	private static final int CAPTURE = 1000000;
+	private static final int KILLER = 900000;
+	private static final int UNDERPROMOTION = -1000000;
+
+	/** History scores are halved once any of them reaches this, so they stay below the killers */
+	private static final int HISTORY_LIMIT = 100000;
+
+	private final int[][] scores;
+	private final int[][] killers;
+	private final int[][] history = new int[2][64 * 64];
+
+	/**
+	*	@param maxPly The deepest ply moves are ordered at
+	*/
+	public MoveOrdering(int maxPly){
+		scores = new int[maxPly + 1][256];
+		killers = new int[maxPly + 1][2];
+	}
+
+	/**
+	*	Scores every move of a list generated at a ply, before the moves are picked with {@link #next(MoveList, int, int)}.
+	*
+	*	@param board The board the moves are to be made on
+	*	@param list The moves to order
+	*	@param ply The ply of the position
+	*	@param ttMove The best move stored for the position, or 0 if there is none
+	*/
+	public void score(Board board, MoveList list, int ply, int ttMove){
+		if (scores[ply].length < list.size())
+			scores[ply] = new int[list.size()];
+
+		int[] s = scores[ply];
+		int side = board.getSideToMove().ordinal();
+		for (int i = 0; i < list.size(); ++i){
+			int move = list.get(i);
+			if (move == ttMove)
+				s[i] = TT_MOVE;
+			else if (Move.isPromotion(move) && Move.promotionType(move) != Game.PieceType.QUEEN)
+				s[i] = UNDERPROMOTION;
+			else if (Move.isCapture(move) || Move.isPromotion(move))
+				s[i] = CAPTURE + mvvLva(board, move);
+			else if (move == killers[ply][0])
+				s[i] = KILLER + 1;
+			else if (move == killers[ply][1])
+				s[i] = KILLER;
+			else s[i] = history[side][move & 4095];
+		}
+	}
+
+	/**
+	*	Moves the best scored move not yet picked to a given index of the list, and returns it.
+	*
+	*	@param list The moves scored at the ply
+	*	@param ply The ply of the position
+	*	@param index The number of moves already picked
+	*	@return The move to try next
+	*/
+	public int next(MoveList list, int ply, int index){
+		int[] s = scores[ply];
+		int best = index;
+		for (int i = index + 1; i < list.size(); ++i){
+			if (s[i] > s[best])
+				best = i;
+		}
+		if (best != index){
+			int move = list.get(best), score = s[best];
+			list.set(best, list.get(index));
+			s[best] = s[index];
+			list.set(index, move);
+			s[index] = score;
+		}
+		return list.get(index);
+	}
+
+	/**
+	*	@param move The move code
+	*	@param ply The ply of the position
+	*	@return Whether the move is one of the killer moves of the ply
+	*/
+	public boolean isKiller(int move, int ply){
+		return move == killers[ply][0] || move == killers[ply][1];
+	}
+
+	/**
+	*	Records a move that caused a beta cutoff. Quiet moves become the first killer of the ply and have their
+	*	history score raised by the square of the remaining depth; captures and promotions are already tried early.
+	*
+	*	@param board The board the move was made on
+	*	@param move The move that caused the cutoff
+	*	@param ply The ply of the position
+	*	@param depth The depth the position was searched to
+	*/
+	public void cutoff(Board board, int move, int ply, int depth){
+		if (Move.isCapture(move) || Move.isPromotion(move))
+			return;
+
+		if (killers[ply][0] != move){
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+
+		int[] h = history[board.getSideToMove().ordinal()];
+		if ((h[move & 4095] += depth * depth) >= HISTORY_LIMIT){
+			for (int i = 0; i < h.length; ++i)
+				h[i] /= 2;
+		}
+	}
+
+	/**
+	*	Forgets the killer moves, which belong to the positions of one search, and ages the history scores so that
+	*	moves that were good in earlier searches count for less than those good in the next one.
+	*/
+	public void newSearch(){
+		for (int[] k : killers)
+			k[0] = k[1] = 0;
+		for (int[] h : history){
+			for (int i = 0; i < h.length; ++i)
+				h[i] /= 8;
+		}
+	}
+
+	/** Scores captures by the value of the victim first, then by the value of the attacker, using Piece.value. */
+	private static int mvvLva(Board board, int move){
+		int flags = Move.flags(move);
+		Piece attacker = board.pieceAt(Move.from(move));
+		double gain = (flags == Move.EN_PASSANT) ? attacker.value : 0;
+		if (Move.isCapture(move) && flags != Move.EN_PASSANT)
+			gain = board.pieceAt(Move.to(move)).value;
+		if (Move.isPromotion(move))
+			gain += Piece.of(attacker.color, Move.promotionType(move)).value - attacker.value;
+		return (int)(gain * 100 - attacker.value);
+	}
+}
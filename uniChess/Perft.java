@@ -0,0 +1,267 @@
+package uniChess;
+
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+*	Counts the leaf nodes of the tree of legal moves below a position, to a fixed depth. Since the counts for
+*	common positions are well known, perft verifies move generation (castling, en passant, promotions to every
+*	piece and checks included), and the time it takes is a measure of move generation throughput.
+*	<p>
+*	Counting runs on a single {@link SearchBoard} with one {@link MoveList} per ply. With more than one thread,
+*	subtrees are split across a {@link ForkJoinPool}. An optional hash table remembers the counts of positions
+*	already seen at a given depth, which pays off for deep counts where positions transpose often.
+*	<p>
+*	From the command line: {@code java uniChess.Perft <depth> [-threads n] [-hash mb] [-divide] [-moves gameString | -fen position]}
+*/
+public class Perft {
+
+	/** Subtrees with at least this many plies left are split into one task per move when counting in parallel */
+	private static final int SPLIT_DEPTH = 4;
+
+	private final Board board;
+
+	private ForkJoinPool pool;
+	private int threads = 1;
+
+	private long[] table;
+	private int mask;
+
+	/**
+	*	@param board The position to count from
+	*/
+	public Perft(Board board){
+		this.board = board;
+	}
+
+	/**
+	*	Sets the number of threads to count with. One thread counts on the calling thread.
+	*
+	*	@param threads The number of threads
+	*/
+	public void setThreads(int threads){
+		if (threads < 1)
+			throw new IllegalArgumentException("Thread count must be positive: "+threads);
+		if (pool != null)
+			pool.shutdown();
+		this.threads = threads;
+		this.pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+	}
+
+	/**
+	*	@return The number of threads counting
+	*/
+	public int getThreads(){
+		return threads;
+	}
+
+	/**
+	*	Enables the hash table of counts, using at most the given amount of memory, or disables it. Tables are
+	*	sized like a {@link TranspositionTable}, so they never hold more than {@link TranspositionTable#MAX_ENTRIES}.
+	*
+	*	@param sizeMB The size of the table in megabytes, or 0 to count without one
+	*/
+	public void setHashSizeMB(int sizeMB){
+		if (sizeMB <= 0){
+			table = null;
+			return;
+		}
+		int entries = TranspositionTable.entries(sizeMB);
+		table = new long[entries * 2];
+		mask = entries - 1;
+	}
+
+	/**
+	*	Counts the leaf nodes of the legal move tree to a given depth.
+	*
+	*	@param depth The number of plies to count to
+	*	@return The number of leaf nodes
+	*/
+	public long perft(int depth){
+		if (depth <= 0)
+			return 1;
+		SearchBoard b = new SearchBoard(board);
+		if (pool != null)
+			return pool.invoke(new Subtree(b, depth));
+		return count(b, depth, newLists(depth));
+	}
+
+	/**
+	*	Counts the leaf nodes below each legal move of the position.
+	*
+	*	@param depth The number of plies to count to, the root move included
+	*	@return The count for each root move in coordinate notation (see {@link Move#getCoordinateString(int)}), in generation order
+	*/
+	public Map<String, Long> divide(int depth){
+		Map<String, Long> res = new LinkedHashMap<>();
+		if (depth <= 0)
+			return res;
+
+		SearchBoard b = new SearchBoard(board);
+		MoveList moves = new MoveList();
+		b.generateLegalMoves(b.getSideToMove(), moves);
+
+		List<Subtree> tasks = new ArrayList<>();
+		MoveList[] lists = newLists(depth);
+		for (int i = 0; i < moves.size(); ++i){
+			int move = moves.get(i);
+			b.makeMove(move);
+			if (pool != null)
+				tasks.add(new Subtree(new SearchBoard(b), depth - 1));
+			else res.put(Move.getCoordinateString(move), (depth == 1) ? 1 : count(b, depth - 1, lists));
+			b.unmakeMove();
+		}
+
+		if (pool != null){
+			for (Subtree t : tasks)
+				pool.execute(t);
+			for (int i = 0; i < tasks.size(); ++i)
+				res.put(Move.getCoordinateString(moves.get(i)), tasks.get(i).join());
+		}
+		return res;
+	}
+
+	private static MoveList[] newLists(int depth){
+		MoveList[] lists = new MoveList[depth + 1];
+		for (int i = 0; i <= depth; ++i)
+			lists[i] = new MoveList();
+		return lists;
+	}
+
+	private long count(SearchBoard b, int depth, MoveList[] lists){
+		if (depth == 0)
+			return 1;
+
+		MoveList moves = lists[depth];
+		b.generateLegalMoves(b.getSideToMove(), moves);
+		if (depth == 1)
+			return moves.size();
+
+		long key = b.getKey() ^ (depth * 0x9E3779B97F4A7C15L);
+		long nodes = probe(key);
+		if (nodes > 0)
+			return nodes;
+
+		for (int i = 0; i < moves.size(); ++i){
+			b.makeMove(moves.get(i));
+			nodes += count(b, depth - 1, lists);
+			b.unmakeMove();
+		}
+
+		store(key, nodes);
+		return nodes;
+	}
+
+	/**
+	*	Entries hold the key XOR-ed with the count followed by the count, so an entry torn by two threads
+	*	storing at once never matches a probe (see {@link TranspositionTable}).
+	*/
+	private long probe(long key){
+		long[] t = table;
+		if (t == null)
+			return 0;
+		int index = ((int)key & mask) << 1;
+		long nodes = t[index + 1];
+		return ((t[index] ^ nodes) == key) ? nodes : 0;
+	}
+
+	private void store(long key, long nodes){
+		long[] t = table;
+		if (t == null)
+			return;
+		int index = ((int)key & mask) << 1;
+		t[index] = key ^ nodes;
+		t[index + 1] = nodes;
+	}
+
+	/** Counts one subtree, forking a task per move while enough plies are left. */
+	private class Subtree extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+
+		private final SearchBoard b;
+		private final int depth;
+
+		Subtree(SearchBoard b, int depth){
+			this.b = b;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Long compute(){
+			if (depth < SPLIT_DEPTH)
+				return count(b, depth, newLists(depth));
+
+			MoveList moves = new MoveList();
+			b.generateLegalMoves(b.getSideToMove(), moves);
+
+			List<Subtree> tasks = new ArrayList<>(moves.size());
+			for (int i = 0; i < moves.size(); ++i){
+				b.makeMove(moves.get(i));
+				Subtree t = new Subtree(new SearchBoard(b), depth - 1);
+				b.unmakeMove();
+				t.fork();
+				tasks.add(t);
+			}
+
+			long nodes = 0;
+			for (Subtree t : tasks)
+				nodes += t.join();
+			return nodes;
+		}
+	}
+
+	public static void main(String[] args){
+		if (args.length < 1){
+			System.out.println("Usage: java uniChess.Perft <depth> [-threads n] [-hash mb] [-divide] [-moves gameString | -fen position]");
+			return;
+		}
+
+		int depth = Integer.parseInt(args[0]);
+		int threads = 1, hash = 0;
+		boolean divide = false;
+		String moves = null, fen = null;
+		for (int i = 1; i < args.length; ++i){
+			switch (args[i]){
+				case "-threads":	threads = Integer.parseInt(args[++i]); break;
+				case "-hash":		hash = Integer.parseInt(args[++i]); break;
+				case "-divide":		divide = true; break;
+				case "-moves":		moves = args[++i]; break;
+				case "-fen":		fen = args[++i]; break;
+				default:
+					System.out.println("Unknown option: "+args[i]);
+					return;
+			}
+		}
+
+		Board board;
+		if (fen != null)
+			board = Board.fromFen(fen);
+		else {
+			Player<String> white = new Player<>("white", Game.Color.WHITE), black = new Player<>("black", Game.Color.BLACK);
+			board = ((moves == null) ? new Game(white, black) : new Game(white, black, moves)).getCurrentBoard();
+		}
+
+		Perft perft = new Perft(board);
+		perft.setThreads(threads);
+		perft.setHashSizeMB(hash);
+
+		long time = System.nanoTime();
+		long nodes = 0;
+		if (divide){
+			for (Map.Entry<String, Long> e : perft.divide(depth).entrySet()){
+				System.out.println(e.getKey()+": "+e.getValue());
+				nodes += e.getValue();
+			}
+			System.out.println();
+		}
+		else nodes = perft.perft(depth);
+		time = System.nanoTime() - time;
+
+		System.out.format("Nodes: %d | Time: %dms | NPS: %d%n", nodes, time / 1000000, (long)(nodes / Math.max(1e-9, time / 1e9)));
+		perft.setThreads(1);
+	}
+}
@@ -1,90 +1,96 @@
 package uniChess;
 
-import java.util.List;
-import java.util.ArrayList;
-
 /**
-*	An object representing a chess piece. Pieces hold histories of locations they have been moved to.  
+*	An object representing a chess piece. Pieces are immutable and there is exactly one instance for each color
+*	and {@code PieceType}, returned by {@link #of(Game.Color, Game.PieceType)} and shared by every Board. Whether a 
+*	piece may still castle, can be captured en passant or is under attack is part of the Board it stands on.
 */
-public class Piece {
+public final class Piece {
 
 	/**	The Color of the Piece*/
-	public Game.Color color;
+	public final Game.Color color;
 	
 	/**	The unicode representation of the Piece*/
-	public String unicodeSymbol;
+	public final String unicodeSymbol;
+
+	/**	The unicode representation of the Piece when {@link Game#useDarkChars} is set*/
+	private final String darkSymbol;
 
 	/**	The plaintext representation of the piece*/
-	public String symbol;
+	public final String symbol;
 
 	/**	
 	*The {@code PieceType} of this Piece
 	*/
-	public Game.PieceType type;
+	public final Game.PieceType type;
 	
 	/** The material value of this piece.*/
-	public double value;
+	public final double value;
 
-	/**	The list of locations that this piece has moved to*/
-	public List<Location> moves;
+	private static final Piece[] PIECES = new Piece[12];
+	static {
+		for (Game.Color c : Game.Color.values())
+			for (Game.PieceType t : Game.PieceType.values())
+				PIECES[c.ordinal() * 6 + t.ordinal()] = new Piece(c, t, t.ordinal());
+	}
 
-	/** Indicates whether this piece is uner attack*/
-	public Move attackingMove = null;
+	/**
+	*	Returns the piece of a given color and type.
+	*
+	*	@param c The color of the piece
+	*	@param type The type of the piece
+	*	@return The shared instance of that piece
+	*/
+	public static Piece of(Game.Color c, Game.PieceType type){
+		return PIECES[c.ordinal() * 6 + type.ordinal()];
+	}
 
+	/**
+	*	Creates a piece equal to the shared instance of a given color and type.
+	*
+	*	@param c The color of the piece
+	*	@param type The type of the piece
+	*	@deprecated Pieces are shared; use {@link #of(Game.Color, Game.PieceType)} instead. Boards store the shared 
+	*	instance in place of any piece created this way.
+	*/
+	@Deprecated
+	public Piece(Game.Color c, Game.PieceType type){
+		this(of(c, type));
+	}
+
+	/**
+	*	Creates a piece equal to the shared instance of another piece's color and type.
+	*
+	*	@param other The piece to copy
+	*	@deprecated Pieces are immutable and shared; use the piece itself or 
+	*	{@link #of(Game.Color, Game.PieceType)} instead.
+	*/
+	@Deprecated
 	public Piece(Piece other){
-		this(other.color, other.type);
-		this.moves.addAll(other.moves);
+		Piece shared = of(other.color, other.type);
+		this.color = shared.color;
+		this.type = shared.type;
+		this.value = shared.value;
+		this.symbol = shared.symbol;
+		this.unicodeSymbol = shared.unicodeSymbol;
+		this.darkSymbol = shared.darkSymbol;
 	}
 
-	public Piece(Game.Color c, Game.PieceType type){
+	private Piece(Game.Color c, Game.PieceType type, int index){
 		this.type = type;
 		this.color = c;
-		this.moves = new ArrayList<>();
-
-		int[] unicodeChars;
-
-		if (color.equals(Game.Color.BLACK) || Game.useDarkChars)
-			unicodeChars = new int[]{9823,9820,9822,9821,9819,9818};
-		else unicodeChars = new int[]{9817,9814,9816,9815,9813,9812};
-
-		switch(type){
-			case PAWN:
-				this.value = 2.0;
-				this.symbol = "P";
-				this.unicodeSymbol = new String(Character.toChars(unicodeChars[0])); 
-				break;
-			case ROOK:
-				this.value = 6.0;
-				this.symbol = "R";
-				this.unicodeSymbol = new String(Character.toChars(unicodeChars[1]));
-				
-				break;
-			case KNIGHT:
-				this.value = 4.0;
-				this.symbol = "N";
-				this.unicodeSymbol = new String(Character.toChars(unicodeChars[2]));
-				
-				break;
-			case BISHOP:
-				this.value = 4.0;
-				this.symbol = "B";
-				this.unicodeSymbol = new String(Character.toChars(unicodeChars[3]));
-				break;
-			case QUEEN:
-				this.value = 10.0;
-				this.symbol = "Q";
-				this.unicodeSymbol = new String(Character.toChars(unicodeChars[4]));
-				
-				break;
-			case KING:	
-				this.value = 200.0;
-				this.symbol = "K";
-				this.unicodeSymbol = new String(Character.toChars(unicodeChars[5]));
-				
-				break;
-		}
-		if (c.equals(Game.Color.BLACK))
-			this.symbol = this.symbol.toLowerCase();
+
+		final int[] darkChars = {9823,9820,9822,9821,9819,9818};
+		final int[] lightChars = {9817,9814,9816,9815,9813,9812};
+		final double[] values = {2.0, 6.0, 4.0, 4.0, 10.0, 200.0};
+		final String symbols = "PRNBQK";
+
+		this.value = values[index];
+		this.darkSymbol = new String(Character.toChars(darkChars[index]));
+		this.unicodeSymbol = c.equals(Game.Color.BLACK) ? darkSymbol : new String(Character.toChars(lightChars[index]));
+
+		String symbol = String.valueOf(symbols.charAt(index));
+		this.symbol = c.equals(Game.Color.BLACK) ? symbol.toLowerCase() : symbol;
 	}
 
 	/**
@@ -105,7 +111,7 @@ public class Piece {
 	*	@return Whether the piece has a symbolic representation of s
 	*/
 	public boolean ofType(String s){
-		return (symbol.equalsIgnoreCase(s) || unicodeSymbol.equals(s));
+		return (symbol.equalsIgnoreCase(s) || unicodeSymbol.equals(s) || darkSymbol.equals(s));
 	}
 
 	/**
@@ -123,12 +129,12 @@ public class Piece {
 	*/
 	public String getSymbol(boolean unicode){
 		if (unicode)
-			return unicodeSymbol;
+			return Game.useDarkChars ? darkSymbol : unicodeSymbol;
 		else return symbol;
 	}
 
 	@Override
 	public String toString(){
-		return ((Game.unicode)?unicodeSymbol:symbol);
+		return getSymbol(Game.unicode);
 	}
 }
\ No newline at end of file
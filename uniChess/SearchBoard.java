@@ -0,0 +1,203 @@
+package uniChess;
+
+import java.util.Arrays;
+
+/**
+*	A mutable Board for searching. Where {@link Board#performMove(Move)} builds a brand new Board for every move,
+*	a SearchBoard performs moves in place with {@link #makeMove(int)} and restores the previous position exactly
+*	with {@link #unmakeMove()}, so an engine can walk a whole tree of moves on a single object. Moves are given as
+*	move codes (see {@link Move}), which {@link #generateLegalMoves(Game.Color, MoveList)} writes without 
+*	allocating.
+*	<p>
+*	Move lists requested from a SearchBoard describe its position at the time they were requested, and Moves
+*	generated on it refer back to this (changing) board. Captured pieces are not added to the death row.
+*/
+public class SearchBoard extends Board {
+
+	private int[] moves = new int[64];
+	private Piece[] moved = new Piece[64];
+	private Piece[] captured = new Piece[64];
+	private int[] capturedSquares = new int[64];
+	private Game.Color[] savedSides = new Game.Color[64];
+	private int[] savedCastling = new int[64];
+	private int[] savedEnPassant = new int[64];
+	private int[] savedHalfmoves = new int[64];
+	private int[] savedFullmoves = new int[64];
+	private long[] savedKeys = new long[64];
+
+	private int ply = 0;
+
+	/** The keys of the positions played before this board was created, oldest first (see {@link #setHistory(long[])}) */
+	private long[] history = new long[0];
+
+	/** The array {@link #staticExchange(int)} works in, reused for every exchange resolved on this board */
+	private final double[] exchangeGains = new double[MAX_EXCHANGE];
+
+	/**
+	*	Creates a SearchBoard holding the same position as a given board.
+	*
+	*	@param other The board to copy
+	*/
+	public SearchBoard(Board other){
+		super(other);
+	}
+
+	/**
+	*	Resolves the exchange a move starts without making any move, as {@link Board#staticExchange(int)} does,
+	*	but without allocating: the search calls this for every capture of its quiescence search.
+	*/
+	@Override
+	double staticExchange(int move){
+		return staticExchange(move, exchangeGains);
+	}
+
+	/**
+	*	@return The number of moves made on this board that have not been unmade
+	*/
+	public int getPly(){
+		return ply;
+	}
+
+	/**
+	*	Performs a given move on this board, as well as any additional actions associated with a
+	*	special move type such as En Passent moves, Castling, and Pawn promotion.
+	*
+	*	@param move The move to perform
+	*/
+	public void makeMove(Move move){
+		makeMove(move.getCode());
+	}
+
+	/**
+	*	Performs a given move on this board, as well as any additional actions associated with a
+	*	special move type such as En Passent moves, Castling, and Pawn promotion.
+	*
+	*	@param move The code of the move to perform
+	*/
+	public void makeMove(int move){
+		if (ply == moves.length)
+			grow();
+
+		int from = Move.from(move), to = Move.to(move);
+		int capturedSquare = (Move.flags(move) == Move.EN_PASSANT) ? (from & ~7) | (to & 7) : to;
+
+		moves[ply] = move;
+		moved[ply] = pieceAt(from);
+		captured[ply] = pieceAt(capturedSquare);
+		capturedSquares[ply] = capturedSquare;
+		savedSides[ply] = getSideToMove();
+		savedCastling[ply] = castlingRights;
+		savedEnPassant[ply] = enPassantSquare;
+		savedHalfmoves[ply] = halfmoveClock;
+		savedFullmoves[ply] = fullmoveNumber;
+		savedKeys[ply] = getKey();
+		++ply;
+
+		applyMove(move);
+		clearMoveCache();
+	}
+
+	/**
+	*	Passes the turn to the other side without moving a piece, for null-move pruning. The en passant square 
+	*	is cleared, and so is the halfmove clock, so no repetition is ever found across a null move. Take it back 
+	*	with {@link #unmakeMove()} like any other move.
+	*/
+	public void makeNullMove(){
+		if (ply == moves.length)
+			grow();
+
+		moves[ply] = 0;
+		moved[ply] = captured[ply] = null;
+		savedSides[ply] = getSideToMove();
+		savedCastling[ply] = castlingRights;
+		savedEnPassant[ply] = enPassantSquare;
+		savedHalfmoves[ply] = halfmoveClock;
+		savedFullmoves[ply] = fullmoveNumber;
+		savedKeys[ply] = getKey();
+		++ply;
+
+		long key = getKey() ^ enPassantKey() ^ Zobrist.side();
+		restoreState(Game.getOpposite(getSideToMove()), castlingRights, -1, 0, fullmoveNumber, key);
+		clearMoveCache();
+	}
+
+	/**
+	*	Takes back the last move made with {@link #makeMove(int)} or {@link #makeNullMove()}, restoring the 
+	*	position exactly as it was.
+	*/
+	public void unmakeMove(){
+		--ply;
+		int move = moves[ply];
+		if (move == 0){
+			restoreState(savedSides[ply], savedCastling[ply], savedEnPassant[ply], savedHalfmoves[ply], savedFullmoves[ply], savedKeys[ply]);
+			clearMoveCache();
+			return;
+		}
+
+		Piece piece = moved[ply];
+		int from = Move.from(move), to = Move.to(move), flags = Move.flags(move);
+
+		if (flags == Move.KING_CASTLE)
+			unmoveOccupator(from + 3, from + 1);
+		else if (flags == Move.QUEEN_CASTLE)
+			unmoveOccupator(from - 4, from - 1);
+
+		setPiece(to, null);
+		setPiece(from, piece);
+
+		if (captured[ply] != null)
+			setPiece(capturedSquares[ply], captured[ply]);
+
+		restoreState(savedSides[ply], savedCastling[ply], savedEnPassant[ply], savedHalfmoves[ply], savedFullmoves[ply], savedKeys[ply]);
+
+		moved[ply] = captured[ply] = null;
+		clearMoveCache();
+	}
+
+	/**
+	*	Sets the positions played in the game before the position this board was created with, so that 
+	*	{@link #isRepetition()} also finds positions repeated from the game itself.
+	*
+	*	@param keys The Zobrist keys of the positions played before, oldest first; only those since the 
+	*	last capture or pawn move matter
+	*/
+	public void setHistory(long[] keys){
+		history = keys.clone();
+	}
+
+	/**
+	*	Determines whether the current position already occurred, since the search board was created or in the 
+	*	game before it (see {@link #setHistory(long[])}). Only positions since the last capture or pawn move are 
+	*	compared, since no earlier one can repeat.
+	*
+	*	@return Whether the position is a repetition
+	*/
+	public boolean isRepetition(){
+		long key = getKey();
+		for (int i = ply - 2; i >= Math.max(-history.length, ply - halfmoveClock); i -= 2)
+			if ((i >= 0 ? savedKeys[i] : history[history.length + i]) == key)
+				return true;
+		return false;
+	}
+
+	/** Moves a piece back from one square to another. */
+	private void unmoveOccupator(int from, int to){
+		Piece p = pieceAt(to);
+		setPiece(to, null);
+		setPiece(from, p);
+	}
+
+	private void grow(){
+		int size = moves.length * 2;
+		moves = Arrays.copyOf(moves, size);
+		moved = Arrays.copyOf(moved, size);
+		captured = Arrays.copyOf(captured, size);
+		capturedSquares = Arrays.copyOf(capturedSquares, size);
+		savedSides = Arrays.copyOf(savedSides, size);
+		savedCastling = Arrays.copyOf(savedCastling, size);
+		savedEnPassant = Arrays.copyOf(savedEnPassant, size);
+		savedHalfmoves = Arrays.copyOf(savedHalfmoves, size);
+		savedFullmoves = Arrays.copyOf(savedFullmoves, size);
+		savedKeys = Arrays.copyOf(savedKeys, size);
+	}
+}
@@ -0,0 +1,119 @@
+package uniChess;
+
+import java.util.List;
+import java.util.ArrayList;
+
+/**
+*	The outcome of an {@link AlphaBetaSearch}: the best move found, its score and the principal variation, the
+*	line of play both sides are expected to follow from the searched position.
+*	<p>
+*	Scores are in centipawns (a pawn is worth 100) from the point of view of the side to move. Scores beyond
+*	{@link AlphaBetaSearch#MATE_BOUND} are forced mates (see {@link #isMate()}).
+*/
+public class SearchResult {
+	private final Board board;
+	private final int[] pv;
+	private final int score, depth;
+	private final SearchStatistics statistics;
+	private final long time;
+
+	SearchResult(Board board, int[] pv, int score, int depth, SearchStatistics statistics, long time){
+		this.board = board;
+		this.pv = pv;
+		this.score = score;
+		this.depth = depth;
+		this.statistics = new SearchStatistics(statistics);
+		this.time = time;
+	}
+
+	/**
+	*	@return The best move found, or null if the position has no legal move
+	*/
+	public Move getBestMove(){
+		return (pv.length == 0) ? null : new Move(board, pv[0]);
+	}
+
+	/**
+	*	@return The code of the best move found (see {@link Move}), or 0 if the position has no legal move
+	*/
+	public int getBestMoveCode(){
+		return (pv.length == 0) ? 0 : pv[0];
+	}
+
+	/**
+	*	Returns the principal variation as Moves, each on the board it is to be played on.
+	*
+	*	@return The principal variation, starting with the best move
+	*/
+	public List<Move> getPrincipalVariation(){
+		List<Move> res = new ArrayList<>(pv.length);
+		Board b = board;
+		for (int code : pv){
+			res.add(new Move(b, code));
+			b = b.performMove(code);
+		}
+		return res;
+	}
+
+	/**
+	*	@return The codes of the moves of the principal variation, starting with the best move
+	*/
+	public int[] getPrincipalVariationCodes(){
+		return pv.clone();
+	}
+
+	/**
+	*	@return The score of the position, in centipawns from the side to move's point of view
+	*/
+	public int getScore(){
+		return score;
+	}
+
+	/**
+	*	@return Whether the score is a forced mate, for either side
+	*/
+	public boolean isMate(){
+		return Math.abs(score) > AlphaBetaSearch.MATE_BOUND;
+	}
+
+	/**
+	*	@return The number of plies the search looked ahead, not counting extensions
+	*/
+	public int getDepth(){
+		return depth;
+	}
+
+	/**
+	*	@return The number of positions visited
+	*/
+	public long getNodes(){
+		return statistics.getNodes();
+	}
+
+	/**
+	*	@return The counts of what the search visited and pruned
+	*/
+	public SearchStatistics getStatistics(){
+		return statistics;
+	}
+
+	/**
+	*	@return The time the search took in milliseconds
+	*/
+	public long getTime(){
+		return time;
+	}
+
+	@Override
+	public String toString(){
+		StringBuilder res = new StringBuilder();
+		res.append("depth ").append(depth).append(" score ");
+		if (isMate())
+			res.append("mate ").append((score > 0 ? 1 : -1) * ((AlphaBetaSearch.MATE - Math.abs(score) + 1) / 2));
+		else res.append("cp ").append(score);
+		res.append(' ').append(statistics).append(" time ").append(time).append(" pv");
+		for (int code : pv)
+			res.append(' ').append(Move.getCoordinateString(code));
+		return res.toString();
+	}
+}
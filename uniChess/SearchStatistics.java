@@ -0,0 +1,90 @@
+package uniChess;
+
+/**
+*	Counts what an {@link AlphaBetaSearch} did: how many positions it visited, and how much its selective
+*	techniques pruned. The counters of one search are handed out with its {@link SearchResult}.
+*/
+public class SearchStatistics {
+	long nodes;
+	long nullMoveTries, nullMoveCutoffs;
+	long reductions, reSearches;
+	long pvReSearches, aspirationReSearches;
+
+	SearchStatistics(){}
+
+	SearchStatistics(SearchStatistics other){
+		add(other);
+	}
+
+	/** Resets every count to zero. */
+	void clear(){
+		nodes = nullMoveTries = nullMoveCutoffs = reductions = reSearches = pvReSearches = aspirationReSearches = 0;
+	}
+
+	/** Adds the counts of another search to these. */
+	void add(SearchStatistics other){
+		nodes += other.nodes;
+		nullMoveTries += other.nullMoveTries;
+		nullMoveCutoffs += other.nullMoveCutoffs;
+		reductions += other.reductions;
+		reSearches += other.reSearches;
+		pvReSearches += other.pvReSearches;
+		aspirationReSearches += other.aspirationReSearches;
+	}
+
+	/**
+	*	@return The number of positions visited, quiescence search included
+	*/
+	public long getNodes(){
+		return nodes;
+	}
+
+	/**
+	*	@return The number of times the side to move passed to test whether its position was still good enough
+	*/
+	public long getNullMoveTries(){
+		return nullMoveTries;
+	}
+
+	/**
+	*	@return The number of positions cut off because passing was still good enough
+	*/
+	public long getNullMoveCutoffs(){
+		return nullMoveCutoffs;
+	}
+
+	/**
+	*	@return The number of late moves searched to a reduced depth
+	*/
+	public long getReductions(){
+		return reductions;
+	}
+
+	/**
+	*	@return The number of reduced moves that turned out better than expected and were searched again in full
+	*/
+	public long getReSearches(){
+		return reSearches;
+	}
+
+	/**
+	*	@return The number of moves that beat the first move of their node in a zero window search and were
+	*	searched again with the full window
+	*/
+	public long getPvReSearches(){
+		return pvReSearches;
+	}
+
+	/**
+	*	@return The number of times the root was searched again because the score fell outside the aspiration window
+	*/
+	public long getAspirationReSearches(){
+		return aspirationReSearches;
+	}
+
+	@Override
+	public String toString(){
+		return String.format("nodes %d nullmove %d/%d lmr %d/%d pvs %d aspiration %d", nodes, nullMoveCutoffs, nullMoveTries,
+			reductions - reSearches, reductions, pvReSearches, aspirationReSearches);
+	}
+}
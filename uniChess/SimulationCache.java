@@ -0,0 +1,164 @@
+package uniChess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+*	A size-bounded cache of the boards produced by {@link Move#getSimulation()}, evicting the least recently used
+*	board once it is full. Boards are keyed by the Zobrist key, the move counters and a key of the death row of the
+*	board the move is made on, together with the move itself, all of them plain numbers so a lookup copies nothing.
+*	The same move from the same board is thus only simulated once no matter which Move object asks for it, a child
+*	board never shows the captures of another line, and no Move keeps its child board reachable.
+*	<p>
+*	The boards handed out are shared by every caller asking for the same simulation, and must be treated as
+*	read-only: changing one, for instance through {@link Board.Tile#setOccupator(Piece)}, changes it for everyone.
+*	Copy a simulation with {@link Board#Board(Board)} before changing it.
+*	<p>
+*	The cache is safe to share between threads, and so are the boards it hands out: a board builds its move lists
+*	and Tiles the first time they are asked for, and publishes them safely to every other thread using it. Hits,
+*	misses and evictions are counted so the capacity can be sized against the available heap.
+*/
+public class SimulationCache {
+
+	/** The number of boards the shared cache holds, unless set otherwise. */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	private final LinkedHashMap<Key, Board> boards = new LinkedHashMap<Key, Board>(16, 0.75f, true){
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Board> eldest){
+			if (size() <= capacity)
+				return false;
+			++evictions;
+			return true;
+		}
+	};
+
+	private int capacity;
+	private long hits, misses, evictions;
+
+	/**
+	*	@param capacity The maximum number of boards to hold
+	*/
+	public SimulationCache(int capacity){
+		setCapacity(capacity);
+	}
+
+	/**
+	*	Returns the board resulting from a move, simulating the move only if the result is not cached.
+	*
+	*	@param move The move to simulate
+	*	@return The board after the move, shared with other callers and not to be changed
+	*/
+	public Board getSimulation(Move move){
+		Board board = move.board;
+		Key key = new Key(board.getKey(), move.getCode(), board.getHalfmoveClock(), board.getFullmoveNumber(), board.getDeathRowKey());
+
+		synchronized (this){
+			Board sim = boards.get(key);
+			if (sim != null){
+				++hits;
+				return sim;
+			}
+			++misses;
+		}
+
+		Board sim = board.performMove(move);
+		synchronized (this){
+			boards.put(key, sim);
+		}
+		return sim;
+	}
+
+	/**
+	*	@return The maximum number of boards the cache holds
+	*/
+	public synchronized int getCapacity(){
+		return capacity;
+	}
+
+	/**
+	*	Sets the maximum number of boards to hold, evicting the least recently used boards if the
+	*	cache holds more.
+	*
+	*	@param capacity The maximum number of boards to hold
+	*/
+	public synchronized void setCapacity(int capacity){
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive: "+capacity);
+		this.capacity = capacity;
+		while (boards.size() > capacity){
+			boards.remove(boards.keySet().iterator().next());
+			++evictions;
+		}
+	}
+
+	/**
+	*	@return The number of boards currently held
+	*/
+	public synchronized int size(){
+		return boards.size();
+	}
+
+	/**
+	*	@return The number of simulations answered from the cache
+	*/
+	public synchronized long getHits(){
+		return hits;
+	}
+
+	/**
+	*	@return The number of simulations that had to perform the move
+	*/
+	public synchronized long getMisses(){
+		return misses;
+	}
+
+	/**
+	*	@return The number of boards dropped to make room for newer ones
+	*/
+	public synchronized long getEvictions(){
+		return evictions;
+	}
+
+	/**
+	*	Drops every cached board and resets the counters.
+	*/
+	public synchronized void clear(){
+		boards.clear();
+		hits = misses = evictions = 0;
+	}
+
+	@Override
+	public synchronized String toString(){
+		return String.format("SimulationCache[size=%d/%d, hits=%d, misses=%d, evictions=%d]", boards.size(), capacity, hits, misses, evictions);
+	}
+
+	/** A board and a move made on it. */
+	private static final class Key {
+		private final long position, deathRow;
+		private final int move, halfmoves, fullmoves;
+
+		Key(long position, int move, int halfmoves, int fullmoves, long deathRow){
+			this.position = position;
+			this.move = move;
+			this.halfmoves = halfmoves;
+			this.fullmoves = fullmoves;
+			this.deathRow = deathRow;
+		}
+
+		@Override
+		public boolean equals(Object o){
+			if (!(o instanceof Key))
+				return false;
+			Key k = (Key)o;
+			return position == k.position && move == k.move && halfmoves == k.halfmoves && fullmoves == k.fullmoves
+				&& deathRow == k.deathRow;
+		}
+
+		@Override
+		public int hashCode(){
+			long h = position ^ deathRow ^ ((long)move << 32) ^ ((long)halfmoves << 48) ^ fullmoves;
+			return (int)(h ^ (h >>> 32));
+		}
+	}
+}
@@ -1,25 +1,43 @@
 package uniChess;
 
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 
-import java.lang.Thread;
-
-public class StrategyProcessorThread extends Thread {
+/**
+*   Explores the move tree below one root move. Chesster runs one of these per legal root move on its search
+*   pool (see {@link Chesster#THREADS}); each works on its own {@link SearchBoard} and shares nothing with the
+*   others.
+*   <p>
+*   The values a subtree adds are only meaningful within the tree of the root move they were found under, so
+*   transposed positions are recorded in a set of this thread's own rather than in Chesster's shared
+*   {@link TranspositionTable}, which holds real search scores for the alpha-beta search.
+*/
+public class StrategyProcessorThread implements Runnable {
     
     Game game;
     Chesster chesster;
     int cpuSave=0;
     public long runTime;
     public int treesize;
+    public int transpositions;
 
     public SmartMove sm;
 
     private int AI_DEPTH;
+
+    /** The position being searched; moves are made and unmade on it in place as the tree is walked */
+    private SearchBoard board;
+
+    /** 
+    *   The positions already explored below the root move, keyed by their Zobrist key mixed with the depth left 
+    *   below them, in an open-addressed table with 0 marking an empty slot
+    */
+    private long[] explored;
+    private int exploredCount;
+
+    /** Set when the search is abandoned, so the tree walk returns as soon as it notices */
+    private volatile boolean stopped;
     
     public StrategyProcessorThread(SmartMove sm, Chesster chesster){
-        super(sm.getANString());
         this.sm = sm;
         this.chesster = chesster;
         this.game = chesster.getGame();
@@ -39,92 +57,218 @@ public class StrategyProcessorThread extends Thread {
 
         sm.unWeightedTreeAverages = new double[AI_DEPTH];
 
-        getMoveTreeVal(sm, AI_DEPTH, 0, sm.unWeightedTreeAverages);
+        board = new SearchBoard(sm.board);
+        explored = new long[1024];
+        exploredCount = 0;
+
+        subMoves = new MoveList[AI_DEPTH];
+        tactVals = new double[AI_DEPTH][];
+        for (int i = 0; i < AI_DEPTH; ++i){
+            subMoves[i] = new MoveList();
+            tactVals[i] = new double[8];
+        }
+        replies = new MoveList();
+
+        getMoveTreeVal(sm.getCode(), sm.tacticalValue, AI_DEPTH, 0, sm.unWeightedTreeAverages);
         
         sm.strategicValue = sm.calculateStrategicValue();                
         runTime = System.currentTimeMillis() - runTime;
     }
 
+    /**
+    *   Asks this thread to stop exploring. Its SmartMove is left unfinished and should not be chosen.
+    */
+    public void stop(){
+        stopped = true;
+    }
+
     double[] bestMove;
     double[] worstMove; 
+
+    /** The submoves found on each depth of the tree, reused for every node on that depth */
+    private MoveList[] subMoves;
+
+    /** The opponent's replies to the move being explored */
+    private MoveList replies;
+
+    /** The distinct tactical values met so far on each depth of the tree */
+    private double[][] tactVals;
+
     /**
-    *   Returns all legal submoves of a move up to depth of max; populates given array with weighted average tactical val for each node depth.
+    *   Explores all legal submoves of a move up to depth of max; populates given array with weighted average tactical val for each node depth.
     *   Weight applied is (1 / nodedepth) to account for loss in prediction accuracy over time. 
     *
-    *   @return The tree of moves
+    *   @param m The code of the move to explore
+    *   @param tacticalValue The tactical value of the move
     */
-
-    public void getMoveTreeVal(SmartMove m, int max, int depth, double[] vals){
+    public void getMoveTreeVal(int m, double tacticalValue, int max, int depth, double[] vals){
         
-        if (depth < max){
+        if (depth < max && !stopped){
+
+            // A position already explored at this depth of the tree would only add the same best and worst 
+            // values again, so transposed positions are skipped
+            if (depth > 0){
+                board.makeMove(m);
+                long key = board.getKey() ^ ((max - depth) * 0x9E3779B97F4A7C15L);
+                board.unmakeMove();
+
+                if (!markExplored(key)){
+                    ++transpositions;
+                    return;
+                }
+            }
 
-            List<SmartMove> submoves = getSubMoves(m);
+            int ply = board.getPly();
 
-            List<Double> tactVals = new ArrayList<>();
+            MoveList submoves = subMoves[depth];
+            getSubMoves(m, depth == 0, submoves);
 
-            for (SmartMove sub : submoves){
-                if (sub.tacticalValue < worstMove[depth]) worstMove[depth] = sub.tacticalValue;
-                else if (sub.tacticalValue > bestMove[depth]) bestMove[depth] = sub.tacticalValue;
+            double[] seen = tactVals[depth];
+            int seenCount = 0;
+
+            for (int i = 0; i < submoves.size(); ++i){
+                int sub = submoves.get(i);
+                double subValue = SmartMove.MATERIAL_WEIGHT * captureValue(sub);
+
+                if (subValue < worstMove[depth]) worstMove[depth] = subValue;
+                else if (subValue > bestMove[depth]) bestMove[depth] = subValue;
 
                 // Only explore tree if the tactical value of this move has not been found on this depth
-                if (!tactVals.contains(sub.tacticalValue)) {
-                    tactVals.add(sub.tacticalValue);
-                    getMoveTreeVal(sub, max, depth+1, vals);
+                if (indexOf(seen, seenCount, subValue) < 0){
+                    if (seenCount == seen.length)
+                        seen = tactVals[depth] = Arrays.copyOf(seen, seenCount * 2);
+                    seen[seenCount++] = subValue;
+                    getMoveTreeVal(sub, subValue, max, depth+1, vals);
                 }
             }
 
             treesize += submoves.size();
             vals[depth] = worstMove[depth] + bestMove[depth];
+
+            while (board.getPly() > ply)
+                board.unmakeMove();
         }   
     }
 
     /**
-    *   Returns all legal submoves available if a given move by a given player were to be performed
+    *   Records a position as explored, unless it already is.
+    *
+    *   @param key The key of the position and the depth left below it
+    *   @return Whether the position was not explored yet
+    */
+    private boolean markExplored(long key){
+        if (key == 0)
+            key = 1;
+        int mask = explored.length - 1, i = (int)(key ^ (key >>> 32)) & mask;
+        for (; explored[i] != 0; i = (i + 1) & mask)
+            if (explored[i] == key)
+                return false;
+        explored[i] = key;
+
+        // Kept at most half full, so probes stay short
+        if (++exploredCount * 2 > explored.length){
+            long[] old = explored;
+            explored = new long[old.length * 2];
+            exploredCount = 0;
+            for (long k : old)
+                if (k != 0)
+                    markExplored(k);
+        }
+        return true;
+    }
+
+    /**
+    *   Finds all legal submoves available if a given move by a given player were to be performed
     *   and the opponent were to perform their highest tactically rated move.
+    *   Both moves are left made on the search board, so it is in the position the submoves are played from.
+    *   For the root move, its tactical value and checkmate flag are set on {@link #sm}.
     *
-    *   @return The list of possible submoves
+    *   @param m The code of the move
+    *   @param root Whether the move is the root move of this thread
+    *   @param res The list to fill with the codes of the submoves
     */
-    public List<SmartMove> getSubMoves(SmartMove m){
-        boolean debug = (sm.equals(m));
+    public void getSubMoves(int m, boolean root, MoveList res){
+        Game.Color opponent = Game.getOpposite(chesster.color);
 
         double curCaptureVal = 0;
-        for (Move olm : m.board.getOpponentLegalMoves(chesster)){
-            SmartMove olsm = new SmartMove(olm);
-            if ( olsm.materialValue > curCaptureVal )
-                curCaptureVal = olsm.materialValue;
+        if (root){
+            legalMoves(opponent, replies);
+            for (int i = 0; i < replies.size(); ++i)
+                curCaptureVal = Math.max(curCaptureVal, SmartMove.MATERIAL_WEIGHT * captureValue(replies.get(i)));
         }
 
-        List<Move> potentialOpponentLegal = m.getSimulation().getOpponentLegalMoves(chesster);
+        board.makeMove(m);
+        legalMoves(opponent, replies);
         
         // CHECKMATE !
-        if (potentialOpponentLegal.isEmpty()){
-            m.CHECKMATE = true;
-            return new ArrayList<SmartMove>();
+        if (replies.isEmpty()){
+            board.unmakeMove();
+            if (root)
+                sm.CHECKMATE = true;
+            res.clear();
+            return;
         }
         
+        // The opponent's best move is the last one rated highest by material, then location value
         double potCaptureVal = 0;
-        List<SmartMove> opponentSorted = new ArrayList<>();
-        for (Move olm : potentialOpponentLegal){
-            SmartMove olsm = new SmartMove(olm);
-            opponentSorted.add(olsm);
-            if (olm.destination.equals(m.destination))
-                m.tacticalValue = -1.0*m.movingPiece.value;
-            if (olm.materialValue > potCaptureVal)
-                potCaptureVal = olm.materialValue;
+        int opponentBest = 0;
+        double bestMaterial = -1, bestLocation = 0;
+        for (int i = 0; i < replies.size(); ++i){
+            int reply = replies.get(i);
+            double material = captureValue(reply);
+            double location = locationValue(reply);
+            if (material > potCaptureVal)
+                potCaptureVal = material;
+            material *= SmartMove.MATERIAL_WEIGHT;
+            if (material > bestMaterial || (material == bestMaterial && location >= bestLocation)){
+                opponentBest = reply;
+                bestMaterial = material;
+                bestLocation = location;
+            }
         }
-        m.tacticalValue = chesster.MATERIAL_WEIGHT*(potCaptureVal - curCaptureVal);
+        if (root)
+            sm.tacticalValue = chesster.MATERIAL_WEIGHT*(potCaptureVal - curCaptureVal);
 
+        // perform the best possible move in response as opponent
+        board.makeMove(opponentBest);
+        legalMoves(chesster.color, res);
+    }
 
-        Collections.sort(opponentSorted);
-        
-        SmartMove opponentBest = opponentSorted.get(opponentSorted.size()-1);
+    /** Fills a list with the legal moves of a color, leaving out promotions to anything but a queen. */
+    private void legalMoves(Game.Color color, MoveList moves){
+        board.generateLegalMoves(color, moves);
+        int kept = 0;
+        for (int i = 0; i < moves.size(); ++i){
+            int move = moves.get(i);
+            if (!Move.isPromotion(move) || Move.promotionType(move) == Game.PieceType.QUEEN)
+                moves.set(kept++, move);
+        }
+        moves.truncate(kept);
+    }
 
-        // perform the best possible move in response as opponent
-        List<SmartMove> res = new ArrayList<>();
-        for (Move legal : opponentBest.getSimulation().getLegalMoves(chesster))
-            res.add(new SmartMove(legal));
-        
-        return res;
+    /** Returns the value of the piece a move captures on the search board, or 0 (en passant included). */
+    private double captureValue(int move){
+        if (!Move.isCapture(move) || Move.flags(move) == Move.EN_PASSANT)
+            return 0;
+        return board.pieceAt(Move.to(move)).value;
+    }
+
+    /** Returns how much closer a move brings its piece to its target, as {@link SmartMove#locationValue} does. */
+    private double locationValue(int move){
+        int from = Move.from(move), to = Move.to(move);
+        Piece piece = board.pieceAt(from);
+        int target;
+        if (!piece.type.equals(Game.PieceType.KING))
+            target = Long.numberOfTrailingZeros(board.getBitboard(Game.getOpposite(piece.color), Game.PieceType.KING));
+        else target = piece.color.equals(Game.Color.WHITE) ? 4 : 60;
+        return Board.distance(from, target) - Board.distance(to, target);
+    }
+
+    private static int indexOf(double[] values, int count, double value){
+        for (int i = 0; i < count; ++i)
+            if (values[i] == value)
+                return i;
+        return -1;
     }
 
     private Player getOpponent(){
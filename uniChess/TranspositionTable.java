@@ -0,0 +1,153 @@
+package uniChess;
+
+import java.util.Arrays;
+
+/**
+*	A fixed-size hash table of searched positions, shared by every search thread without any locking.
+*	<p>
+*	The table is a single {@code long[]} holding two longs per entry: the position's Zobrist key XOR-ed with the
+*	entry's data, followed by the data itself. Threads read and write entries with plain array accesses, so two
+*	threads storing into the same slot at once can leave it holding one thread's key half and the other's data
+*	half. A probe therefore only accepts an entry when its two halves XOR back to the key being probed, which
+*	rejects such torn entries (as well as entries for other positions) instead of returning corrupt data.
+*	<p>
+*	The data of an entry packs, from the lowest bit up: the best move (16 bits), the searched depth (8 bits),
+*	the bound type (2 bits), the search generation it was stored in (6 bits) and the score (32 bits).
+*/
+public class TranspositionTable {
+
+	/** Bound types: the score is exact, at most the stored score (fail low), or at least the stored score (fail high). */
+	public static final int BOUND_NONE = 0, BOUND_UPPER = 1, BOUND_LOWER = 2, BOUND_EXACT = 3;
+
+	/** The most entries a table can hold: two longs per entry must still fit in one Java array (8 GB) */
+	public static final int MAX_ENTRIES = 1 << 29;
+
+	private final long[] table;
+	private final int mask;
+	private final int sizeMB;
+	private int generation;
+
+	/**
+	*	Creates a table using at most the given amount of memory. The number of entries is the
+	*	largest power of two that fits, so every key maps to a slot with a single mask.
+	*
+	*	@param sizeMB The size of the table in megabytes
+	*/
+	public TranspositionTable(int sizeMB){
+		int entries = entries(sizeMB);
+		this.table = new long[entries * 2];
+		this.mask = entries - 1;
+		this.sizeMB = sizeMB;
+	}
+
+	/**
+	*	Sizes a table of two longs (16 bytes) per entry, such as this one or the count table of {@link Perft}.
+	*
+	*	@param sizeMB The memory the table may use in megabytes; sizes below 1 count as 1
+	*	@return The largest power of two number of entries that fits, at most {@link #MAX_ENTRIES}
+	*/
+	static int entries(int sizeMB){
+		long bytes = Math.max(1, sizeMB) * 1024L * 1024L;
+		return (int)Long.highestOneBit(Math.min(bytes / 16, MAX_ENTRIES));
+	}
+
+	/**
+	*	@return The size of the table in megabytes, as requested on creation
+	*/
+	public int getSizeMB(){
+		return sizeMB;
+	}
+
+	/**
+	*	Marks the start of a new search. Entries left over from earlier searches are replaced
+	*	in preference to entries stored during this one.
+	*/
+	public void newSearch(){
+		generation = (generation + 1) & 0x3F;
+	}
+
+	/**
+	*	Empties the table.
+	*/
+	public void clear(){
+		Arrays.fill(table, 0L);
+	}
+
+	/**
+	*	Looks up a position.
+	*
+	*	@param key The Zobrist key of the position
+	*	@return The data stored for the position, or 0 if the table holds no entry for it
+	*/
+	public long probe(long key){
+		int index = ((int)key & mask) << 1;
+		long data = table[index + 1];
+		return ((table[index] ^ data) == key) ? data : 0L;
+	}
+
+	/**
+	*	Stores the result of searching a position. An existing entry for a different position is only
+	*	overwritten if it was stored by an earlier search or searched no deeper than the new one.
+	*
+	*	@param key The Zobrist key of the position
+	*	@param depth The depth the position was searched to (0 to 255)
+	*	@param bound The bound type of the score
+	*	@param score The score of the position
+	*	@param move The best move found in the position, packed into 16 bits
+	*/
+	public void store(long key, int depth, int bound, int score, int move){
+		int index = ((int)key & mask) << 1;
+		long old = table[index + 1];
+		boolean sameKey = (table[index] ^ old) == key;
+
+		if (!sameKey && old != 0 && generation(old) == generation && depth(old) > depth)
+			return;
+
+		if (sameKey && move == 0)
+			move = move(old);
+
+		long data = (move & 0xFFFFL)
+				| ((long)(depth & 0xFF) << 16)
+				| ((long)(bound & 0x3) << 24)
+				| ((long)generation << 26)
+				| ((long)score << 32);
+		table[index] = key ^ data;
+		table[index + 1] = data;
+	}
+
+	/**
+	*	@param data The data of an entry, as returned by {@link #probe(long)}
+	*	@return The packed best move of the entry, or 0 if none was stored
+	*/
+	public static int move(long data){
+		return (int)(data & 0xFFFF);
+	}
+
+	/**
+	*	@param data The data of an entry, as returned by {@link #probe(long)}
+	*	@return The depth the entry's position was searched to
+	*/
+	public static int depth(long data){
+		return (int)((data >>> 16) & 0xFF);
+	}
+
+	/**
+	*	@param data The data of an entry, as returned by {@link #probe(long)}
+	*	@return The bound type of the entry's score
+	*/
+	public static int bound(long data){
+		return (int)((data >>> 24) & 0x3);
+	}
+
+	/**
+	*	@param data The data of an entry, as returned by {@link #probe(long)}
+	*	@return The score of the entry
+	*/
+	public static int score(long data){
+		return (int)(data >>> 32);
+	}
+
+	private static int generation(long data){
+		return (int)((data >>> 26) & 0x3F);
+	}
+}
@@ -0,0 +1,101 @@
+package uniChess;
+
+/**
+*	Random keys for Zobrist hashing of positions. The key of a position is the XOR of one key for every piece on
+*	every square, one for the side to move when it is Black, one for the set of castling rights and one for the
+*	file of the en passant square (if any). Since XOR is its own inverse, a Board keeps its key up to date by
+*	XOR-ing keys in and out as pieces are placed and removed and as its state changes, never recomputing it.
+*/
+public final class Zobrist {
+
+	private static final long[][] PIECES = new long[12][64];
+	private static final long[] CASTLING = new long[16];
+	private static final long[] EN_PASSANT = new long[8];
+	private static final long SIDE;
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	static {
+		// A fixed seed keeps keys stable between runs, so they can be stored and compared across processes
+		long state = 0x2545F4914F6CDD1DL;
+		for (int p = 0; p < 12; ++p)
+			for (int sq = 0; sq < 64; ++sq)
+				PIECES[p][sq] = mix(state += GOLDEN_GAMMA);
+		for (int i = 0; i < 16; ++i)
+			CASTLING[i] = mix(state += GOLDEN_GAMMA);
+		for (int i = 0; i < 8; ++i)
+			EN_PASSANT[i] = mix(state += GOLDEN_GAMMA);
+		SIDE = mix(state += GOLDEN_GAMMA);
+	}
+
+	private Zobrist(){}
+
+	/**
+	*	@param pieceIndex The bitboard index of the piece (see {@link Board#getBitboard(Game.Color, Game.PieceType)})
+	*	@param sq The square index
+	*	@return The key of the piece standing on the square
+	*/
+	static long piece(int pieceIndex, int sq){
+		return PIECES[pieceIndex][sq];
+	}
+
+	/**
+	*	@param rights The castling rights, one bit per side and wing
+	*	@return The key of that set of castling rights
+	*/
+	static long castling(int rights){
+		return CASTLING[rights];
+	}
+
+	/**
+	*	@param sq The en passant square, or -1 if there is none or no pawn can capture on it
+	*	@return The key of the en passant square's file, or 0 if there is none
+	*/
+	static long enPassant(int sq){
+		return (sq < 0) ? 0 : EN_PASSANT[sq & 7];
+	}
+
+	/**
+	*	Returns the key of a captured piece at a given place in a death row. The piece keys are reused, the place 
+	*	standing in for the square, since a death row never holds more pieces than there are squares.
+	*
+	*	@param pieceIndex The bitboard index of the piece
+	*	@param n The place of the piece in the death row, from 0
+	*	@return The key of the piece at that place
+	*/
+	static long captured(int pieceIndex, int n){
+		return PIECES[pieceIndex][n & 63];
+	}
+
+	/**
+	*	@return The key XOR-ed in whenever Black is to move
+	*/
+	static long side(){
+		return SIDE;
+	}
+
+	/**
+	*	Computes the key of a board from scratch. Boards maintain their own key incrementally; this is
+	*	only needed to check that key.
+	*
+	*	@param board The board to hash
+	*	@return The Zobrist key of the board's position
+	*/
+	public static long compute(Board board){
+		long key = 0;
+		for (Game.Color c : Game.Color.values())
+			for (Game.PieceType t : Game.PieceType.values())
+				for (long bb = board.getBitboard(c, t); bb != 0; bb &= bb - 1)
+					key ^= piece(Board.pieceIndex(c, t), Long.numberOfTrailingZeros(bb));
+		if (board.getSideToMove().equals(Game.Color.BLACK))
+			key ^= SIDE;
+		return key ^ castling(board.castlingRights) ^ enPassant(board.capturableEnPassantSquare());
+	}
+
+	/** The SplitMix64 output function, applied to a state advanced by the golden gamma each step. */
+	private static long mix(long z){
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}